@@ -96,6 +96,10 @@ dependencies {
     implementation(libs.circleimageview)   // CircleImageView for profile pictures
     implementation("com.github.bumptech.glide:glide:4.16.0") // Image loading library
     annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false // Use the app's own Glide and RecyclerView versions
+    }
+    implementation("com.github.bumptech.glide:okhttp3-integration:4.16.0")
     
     
     // Activity and Fragment KTX for activity result API
@@ -126,6 +130,8 @@ dependencies {
     
     // Ktor for network requests (required by Supabase)
     implementation("io.ktor:ktor-client-android:2.3.12")
+    implementation("io.ktor:ktor-client-okhttp:2.3.12") // Shares HttpClients.okHttp with Glide
+    implementation("com.squareup.okhttp3:okhttp:4.12.0")
     implementation("io.ktor:ktor-client-core:2.3.12")
     implementation("io.ktor:ktor-utils:2.3.12")
     
@@ -13,6 +13,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.madadgarapp.dialogs.CategoryFacetBinder;
+import com.example.madadgarapp.utils.CategoryFacetCounts;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
@@ -91,10 +93,20 @@ public class CategoriesFragment extends Fragment {
         // Set up category listeners
         setupCategoryListeners();
         
+        // Show item counts and hide empty categories, following the feed while open
+        CategoryFacetCounts facetCounts = CategoryFacetCounts.getInstance();
+        View countsView = dialogView;
+        CategoryFacetCounts.OnCountsChangedListener countsListener =
+                counts -> CategoryFacetBinder.bind(countsView, counts);
+        CategoryFacetBinder.bind(dialogView, facetCounts);
+        facetCounts.addListener(countsListener);
+        facetCounts.refreshServerCounts();
+        
         // Create and show the dialog
         Dialog dialog = new MaterialAlertDialogBuilder(requireContext())
                 .setView(dialogView)
                 .setCancelable(true)
+                .setOnDismissListener(d -> facetCounts.removeListener(countsListener))
                 .create();
         
         // Set dialog reference to button tags for access in click listeners
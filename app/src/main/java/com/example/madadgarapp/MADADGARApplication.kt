@@ -2,7 +2,11 @@ package com.example.madadgarapp
 
 import android.app.Application
 import android.util.Log
+import com.example.madadgarapp.utils.AppStartup
+import com.example.madadgarapp.utils.AppStartup.Stage
 import com.example.madadgarapp.utils.SupabaseClient
+import com.example.madadgarapp.utils.FavoriteManager
+import com.example.madadgarapp.utils.FavoritesSync
 import com.example.madadgarapp.utils.FoodExpiryScheduler
 import dagger.hilt.android.HiltAndroidApp
 
@@ -24,72 +28,56 @@ open class MADADGARApplication : Application() {
         
         Log.d(TAG, "MADADGAR Application starting...")
         
-        // Initialize Supabase client
-        initializeSupabase()
+        // Nothing here runs on the main thread; see AppStartup and StartupTrace
+        AppStartup.register("supabase", Stage.BACKGROUND) { initializeSupabase() }
         
-        // Initialize Food Expiry Scheduler
-        initializeFoodExpiryScheduler()
+        // Read favourites before the feed binds its first rows
+        AppStartup.register("favorites", Stage.BACKGROUND) { FavoriteManager.preload(it) }
         
-        // Initialize Notifications
-        initializeNotifications()
+        // Merge favourites with the user's account whenever someone signs in
+        AppStartup.register("favorites_sync", Stage.BACKGROUND, listOf("supabase")) {
+            FavoritesSync.start(it)
+        }
+        
+        // Channels must exist before a push can be shown, so they don't wait for a frame
+        AppStartup.register("notification_channels", Stage.BACKGROUND) {
+            com.example.madadgarapp.utils.NotificationManager.initializeNotificationChannels(it)
+        }
+        
+        AppStartup.register("expiry_scheduler", Stage.AFTER_FIRST_FRAME) {
+            initializeFoodExpiryScheduler()
+        }
         
-        Log.d(TAG, "MADADGAR Application initialized successfully")
+        AppStartup.start(this)
+        
+        Log.d(TAG, "MADADGAR Application startup scheduled")
     }
     
     /**
-     * Initialize Supabase client with proper error handling
+     * Create the Supabase client; it is lazy, so this only moves the cost off the main thread
      */
     private fun initializeSupabase() {
-        try {
-            Log.d(TAG, "Initializing Supabase client...")
-            SupabaseClient.initialize()
-            Log.d(TAG, "Supabase client initialized successfully")
-        } catch (e: Exception) {
-            Log.e(TAG, "Failed to initialize Supabase client", e)
-            // In a production app, you might want to show an error dialog
-            // or disable features that require Supabase
-        }
+        Log.d(TAG, "Initializing Supabase client...")
+        SupabaseClient.initialize()
+        Log.d(TAG, "Supabase client initialized successfully")
     }
     
     /**
      * Initialize Food Expiry Scheduler for automatic deletion of expired food items
      */
     private fun initializeFoodExpiryScheduler() {
-        try {
-            Log.d(TAG, "Initializing Food Expiry Scheduler...")
-            
-            // Schedule the periodic job to clean up expired food items
-            val success = FoodExpiryScheduler.scheduleExpiryJob(this)
-            
-            if (success) {
-                Log.d(TAG, "Food Expiry Scheduler initialized successfully")
-                
-                // Log current scheduled jobs for debugging
-                FoodExpiryScheduler.logScheduledJobs(this)
-            } else {
-                Log.w(TAG, "Failed to schedule Food Expiry job")
-            }
-            
-        } catch (e: Exception) {
-            Log.e(TAG, "Failed to initialize Food Expiry Scheduler", e)
-            // Continue app initialization even if scheduler fails
-        }
-    }
-    
-    /**
-     * Initialize notification channels and settings
-     */
-    private fun initializeNotifications() {
-        try {
-            Log.d(TAG, "Initializing notifications...")
-            
-            // Initialize notification channels
-            com.example.madadgarapp.utils.NotificationManager.initializeNotificationChannels(this)
+        Log.d(TAG, "Initializing Food Expiry Scheduler...")
+        
+        // Arm the one-shot cleanup run for the next food expiry
+        val success = FoodExpiryScheduler.scheduleExpiryJob(this)
+        
+        if (success) {
+            Log.d(TAG, "Food Expiry Scheduler initialized successfully")
             
-            Log.d(TAG, "Notifications initialized successfully")
-        } catch (e: Exception) {
-            Log.e(TAG, "Failed to initialize notifications", e)
-            // Continue app initialization even if notifications fail
+            // Log current scheduled jobs for debugging
+            FoodExpiryScheduler.logScheduledJobs(this)
+        } else {
+            Log.w(TAG, "Failed to schedule Food Expiry job")
         }
     }
 }
@@ -0,0 +1,60 @@
+package com.example.madadgarapp;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.madadgarapp.utils.HttpClients;
+
+import java.io.InputStream;
+
+/**
+ * Glide configuration for the app.
+ * Memory cache and bitmap pool are sized by the device's memory class, storage images get a
+ * larger disk cache than Glide's default, and fetches go through the app's shared OkHttp
+ * client. Glide registers itself for onTrimMemory, so caches shrink with the app's memory.
+ */
+@GlideModule
+public final class MADADGARGlideModule extends AppGlideModule {
+
+    private static final String DISK_CACHE_DIR = "image_cache";
+    private static final long DISK_CACHE_BYTES = 250L * 1024 * 1024; // 250 MB
+
+    // Devices at or below this per-app heap get smaller in-memory caches
+    private static final int LOW_MEMORY_CLASS_MB = 128;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean lowMemory = activityManager.isLowRamDevice()
+                || activityManager.getMemoryClass() <= LOW_MEMORY_CLASS_MB;
+
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(lowMemory ? 1 : 2)
+                .setBitmapPoolScreens(lowMemory ? 1 : 3)
+                .setMaxSizeMultiplier(lowMemory ? 0.25f : 0.4f)
+                .build();
+        builder.setMemorySizeCalculator(calculator);
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(HttpClients.getOkHttp()));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
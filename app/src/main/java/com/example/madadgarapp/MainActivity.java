@@ -16,6 +16,7 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.ViewModelProvider;
 import android.widget.FrameLayout;
 
@@ -28,6 +29,7 @@ import com.example.madadgarapp.fragments.MyPostsFragment;
 import com.example.madadgarapp.fragments.NotificationsFragment;
 import com.example.madadgarapp.fragments.AccountFragment;
 import com.example.madadgarapp.utils.AuthManager;
+import com.example.madadgarapp.utils.LayoutPrewarmer;
 
 import android.app.Dialog;
 import android.view.LayoutInflater;
@@ -102,7 +104,7 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
 
                 // If we're on any fragment other than items (handled via bottom nav), go back to items
                 if (activeFragment != null && activeFragment != itemsFragment) {
-                    switchFragment(itemsFragment, "items");
+                    switchFragment(getOrCreateFragment("items"), "items");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_items);
                     return;
                 }
@@ -134,6 +136,17 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
             }
         });
         
+        // Once the first frame is up, inflate the share form in the background while idle; it is
+        // the tab most likely to be opened next and by far the heaviest layout
+        if (shareItemFragment == null) {
+            mainFragmentContainer.post(() -> android.os.Looper.myQueue().addIdleHandler(() -> {
+                if (shareItemFragment == null && !isFinishing()) {
+                    LayoutPrewarmer.prewarm(this, R.layout.fragment_share_item, mainFragmentContainer);
+                }
+                return false;
+            }));
+        }
+        
         // Handle notification intent AFTER everything is set up
         // Use a small delay to ensure fragments are ready
         new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
@@ -190,20 +203,14 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
     }
     
     private void initFragments(Bundle savedInstanceState) {
-        // Create new fragment instances if they don't exist
-        if (itemsFragment == null) itemsFragment = ItemsFragment.newInstance();
-        if (shareItemFragment == null) shareItemFragment = ShareItemFragment.newInstance();
-        if (myPostsFragment == null) myPostsFragment = MyPostsFragment.newInstance();
-        if (notificationsFragment == null) notificationsFragment = new NotificationsFragment();
-        if (accountFragment == null) accountFragment = AccountFragment.newInstance();
-        
         // Initialize the fragment manager
         fragmentManager = getSupportFragmentManager();
         
         // Set initial fragment
         if (savedInstanceState == null) {
-            // First time initialization - show Items fragment by default
-            activeFragment = itemsFragment;
+            // First time initialization - show Items fragment by default; the other tabs are
+            // created the first time they are opened
+            activeFragment = getOrCreateFragment("items");
             
             // Show the default fragment immediately
             try {
@@ -229,48 +236,66 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
             notificationsFragment = (NotificationsFragment) fragmentManager.findFragmentByTag("notifications");
             accountFragment = (AccountFragment) fragmentManager.findFragmentByTag("account");
             
-            // If fragments weren't found (which shouldn't happen but just in case), create new instances
-            if (itemsFragment == null) itemsFragment = ItemsFragment.newInstance();
-            if (shareItemFragment == null) shareItemFragment = ShareItemFragment.newInstance();
-            if (myPostsFragment == null) myPostsFragment = MyPostsFragment.newInstance();
-            if (notificationsFragment == null) notificationsFragment = new NotificationsFragment();
-            if (accountFragment == null) accountFragment = AccountFragment.newInstance();
+            // Tabs never opened before the restart stay null until they are opened
             
             // Set active fragment
             switch (activeFragmentTag) {
                 case "items":
-                    activeFragment = itemsFragment;
+                    activeFragment = getOrCreateFragment("items");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_items);
                     break;
                 case "categories":
                     // Categories is now handled via dialog, stay on current fragment
-                    activeFragment = itemsFragment;
+                    activeFragment = getOrCreateFragment("items");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_items);
                     break;
                 case "share_item":
-                    activeFragment = shareItemFragment;
+                    activeFragment = getOrCreateFragment("share_item");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_add);
                     break;
                 case "my_posts":
-                    activeFragment = myPostsFragment;
+                    activeFragment = getOrCreateFragment("my_posts");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_my_posts);
                     break;
                 case "notifications":
-                    activeFragment = notificationsFragment;
+                    activeFragment = getOrCreateFragment("notifications");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_notifications);
                     break;
                 case "account":
-                    activeFragment = accountFragment;
+                    activeFragment = getOrCreateFragment("account");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_account);
                     break;
                 default:
-                    activeFragment = itemsFragment;
+                    activeFragment = getOrCreateFragment("items");
                     bottomNavigationView.setSelectedItemId(R.id.navigation_items);
                     break;
             }
         }
     }
     
+    /**
+     * The fragment for a tab, created the first time the tab is opened
+     */
+    private Fragment getOrCreateFragment(String tag) {
+        switch (tag) {
+            case "share_item":
+                if (shareItemFragment == null) shareItemFragment = ShareItemFragment.newInstance();
+                return shareItemFragment;
+            case "my_posts":
+                if (myPostsFragment == null) myPostsFragment = MyPostsFragment.newInstance();
+                return myPostsFragment;
+            case "notifications":
+                if (notificationsFragment == null) notificationsFragment = new NotificationsFragment();
+                return notificationsFragment;
+            case "account":
+                if (accountFragment == null) accountFragment = AccountFragment.newInstance();
+                return accountFragment;
+            default:
+                if (itemsFragment == null) itemsFragment = ItemsFragment.newInstance();
+                return itemsFragment;
+        }
+    }
+    
     private void setupBottomNavigation() {
         if (bottomNavigationView == null) {
             Toast.makeText(this, "Error: Bottom navigation not initialized", Toast.LENGTH_LONG).show();
@@ -287,19 +312,19 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
             }
             
             if (itemId == R.id.navigation_items) {
-                switchFragment(itemsFragment, "items");
+                switchFragment(getOrCreateFragment("items"), "items");
                 return true;
             } else if (itemId == R.id.navigation_add) {
-                switchFragment(shareItemFragment, "share_item");
+                switchFragment(getOrCreateFragment("share_item"), "share_item");
                 return true;
             } else if (itemId == R.id.navigation_my_posts) {
-                switchFragment(myPostsFragment, "my_posts");
+                switchFragment(getOrCreateFragment("my_posts"), "my_posts");
                 return true;
             } else if (itemId == R.id.navigation_notifications) {
-                switchFragment(notificationsFragment, "notifications");
+                switchFragment(getOrCreateFragment("notifications"), "notifications");
                 return true;
             } else if (itemId == R.id.navigation_account) {
-                switchFragment(accountFragment, "account");
+                switchFragment(getOrCreateFragment("account"), "account");
                 return true;
             }
             
@@ -381,17 +406,20 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
                 );
             }
             
-            // Hide current active fragment if exists
-            if (activeFragment != null && activeFragment.isAdded()) {
+            // Hide current active fragment if exists; hidden tabs are held at STARTED so only
+            // the visible one is resumed
+            if (activeFragment != null && activeFragment != fragment && activeFragment.isAdded()) {
                 transaction.hide(activeFragment);
+                transaction.setMaxLifecycle(activeFragment, Lifecycle.State.STARTED);
             }
             
             // If fragment is not added, add it first
             if (!fragment.isAdded()) {
                 transaction.add(R.id.main_fragment_container, fragment, tag);
             } else {
-                // If already added, just show it
+                // If already added, just show it and let it resume again
                 transaction.show(fragment);
+                transaction.setMaxLifecycle(fragment, Lifecycle.State.RESUMED);
             }
             
             // Update the active fragment
@@ -409,13 +437,8 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
 
     public void showShareItemForm() {
         try {
-            // Get or create the ShareItemFragment
-            if (shareItemFragment == null) {
-                shareItemFragment = ShareItemFragment.newInstance();
-            }
-            
             // Simply switch to the shareItemFragment using the main container
-            switchFragment(shareItemFragment, "share_item");
+            switchFragment(getOrCreateFragment("share_item"), "share_item");
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -447,6 +470,12 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
         }
     }
     
+    @Override
+    protected void onDestroy() {
+        LayoutPrewarmer.clear();
+        super.onDestroy();
+    }
+    
     @Override
     protected void onResume() {
         super.onResume();
@@ -817,9 +846,7 @@ private static final String STATE_ACTIVE_FRAGMENT = "active_fragment";
             if (bottomNavigationView != null) {
                 bottomNavigationView.setSelectedItemId(R.id.navigation_items);
             }
-            if (itemsFragment != null) {
-                switchFragment(itemsFragment, "items");
-            }
+            switchFragment(getOrCreateFragment("items"), "items");
         } catch (Exception e) {
             android.util.Log.e("MainActivity", "Error navigating to items tab", e);
         }
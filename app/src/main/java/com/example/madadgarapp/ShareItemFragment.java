@@ -30,10 +30,14 @@ import java.util.Map;
 import android.media.MediaPlayer;
 import android.view.ViewGroup.LayoutParams;
 import com.google.android.material.slider.Slider;
+import com.bumptech.glide.Glide;
 import com.example.madadgarapp.repository.SupabaseItemBridge;
 import com.example.madadgarapp.models.SupabaseItem;
+import com.example.madadgarapp.utils.FoodExpiryScheduler;
+import com.example.madadgarapp.utils.LayoutPrewarmer;
 import com.example.madadgarapp.utils.LocationUtils;
 import com.example.madadgarapp.utils.NotificationManager;
+import com.example.madadgarapp.utils.TimeUtils;
 import com.example.madadgarapp.fragments.LocationPickerFragment;
 import android.Manifest;
 import androidx.activity.result.ActivityResultLauncher;
@@ -126,8 +130,8 @@ public class ShareItemFragment extends Fragment {
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
-        // Inflate the layout for this fragment
-        return inflater.inflate(R.layout.fragment_share_item, container, false);
+        // Inflate the layout for this fragment, or take the copy MainActivity prewarmed
+        return LayoutPrewarmer.inflate(inflater, R.layout.fragment_share_item, container);
     }
 
     @Override
@@ -660,48 +664,77 @@ public class ShareItemFragment extends Fragment {
         // Update photo count
         textMediaCount.setText(selectedPhotoUris.size() + "/" + MAX_PHOTO_COUNT + " Photos");
         
-        // Clear thumbnails
-        layoutImagePreviews.removeAllViews();
-        
-        // Add thumbnails for each photo
+        // Reconcile the strip with the selection; thumbnails whose photo hasn't changed are
+        // left alone so adding a photo only decodes the new one
+        int size = getResources().getDimensionPixelSize(R.dimen.share_thumbnail_size);
         for (int i = 0; i < selectedPhotoUris.size(); i++) {
             Uri photoUri = selectedPhotoUris.get(i);
-            
-            // Create thumbnail ImageView
-            ImageView thumbnail = new ImageView(getContext());
-            int size = (int) (80 * getResources().getDisplayMetrics().density);
-            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(size, size);
-            params.setMargins(8, 0, 8, 0);
-            thumbnail.setLayoutParams(params);
-            thumbnail.setScaleType(ImageView.ScaleType.CENTER_CROP);
-            thumbnail.setImageURI(photoUri);
-            
-            // Add click listener to make it the main preview
-            final int index = i;
-            thumbnail.setOnClickListener(v -> {
-                imagePreview.setImageURI(selectedPhotoUris.get(index));
-                imagePreview.setVisibility(View.VISIBLE);
-                videoPreview.setVisibility(View.GONE);
-                iconPlayVideo.setVisibility(View.GONE);
-            });
-            
-            layoutImagePreviews.addView(thumbnail);
+            ImageView thumbnail = i < layoutImagePreviews.getChildCount()
+                    ? (ImageView) layoutImagePreviews.getChildAt(i)
+                    : addThumbnailView(size);
+            if (!photoUri.equals(thumbnail.getTag())) {
+                thumbnail.setTag(photoUri);
+                Glide.with(this)
+                        .load(photoUri)
+                        .override(size)
+                        .centerCrop()
+                        .into(thumbnail);
+            }
+        }
+        while (layoutImagePreviews.getChildCount() > selectedPhotoUris.size()) {
+            int last = layoutImagePreviews.getChildCount() - 1;
+            Glide.with(this).clear(layoutImagePreviews.getChildAt(last));
+            layoutImagePreviews.removeViewAt(last);
         }
         
         // Show first photo in main preview if we have photos and no video is shown
         if (!selectedPhotoUris.isEmpty() && !isVideoSelected) {
-            imagePreview.setImageURI(selectedPhotoUris.get(0));
-            imagePreview.setVisibility(View.VISIBLE);
+            showPhotoPreview(selectedPhotoUris.get(0));
         }
     }
     
+    private ImageView addThumbnailView(int size) {
+        ImageView thumbnail = new ImageView(getContext());
+        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(size, size);
+        params.setMargins(8, 0, 8, 0);
+        thumbnail.setLayoutParams(params);
+        thumbnail.setScaleType(ImageView.ScaleType.CENTER_CROP);
+        
+        // Tapping a thumbnail makes its photo the main preview
+        thumbnail.setOnClickListener(v -> {
+            if (v.getTag() instanceof Uri) {
+                showPhotoPreview((Uri) v.getTag());
+                videoPreview.setVisibility(View.GONE);
+                iconPlayVideo.setVisibility(View.GONE);
+            }
+        });
+        
+        layoutImagePreviews.addView(thumbnail);
+        return thumbnail;
+    }
+    
+    /**
+     * Show a photo in the main preview, decoded off the main thread at the preview's size
+     */
+    private void showPhotoPreview(Uri photoUri) {
+        Glide.with(this)
+                .load(photoUri)
+                .centerCrop()
+                .into(imagePreview);
+        imagePreview.setVisibility(View.VISIBLE);
+    }
+    
     private void clearPhotos() {
         selectedPhotoUris.clear();
+        for (int i = 0; i < layoutImagePreviews.getChildCount(); i++) {
+            Glide.with(this).clear(layoutImagePreviews.getChildAt(i));
+        }
         layoutImagePreviews.removeAllViews();
         textMediaCount.setText("0/" + MAX_PHOTO_COUNT + " Photos");
         
         // If no video is selected, hide the image preview
         if (!isVideoSelected) {
+            Glide.with(this).clear(imagePreview);
             imagePreview.setVisibility(View.GONE);
         }
     }
@@ -718,8 +751,7 @@ public class ShareItemFragment extends Fragment {
             
             // Show first photo if available
             if (!selectedPhotoUris.isEmpty()) {
-                imagePreview.setImageURI(selectedPhotoUris.get(0));
-                imagePreview.setVisibility(View.VISIBLE);
+                showPhotoPreview(selectedPhotoUris.get(0));
             }
         }
     }
@@ -1078,6 +1110,9 @@ public class ShareItemFragment extends Fragment {
                 new SupabaseItemBridge.RepositoryCallback<SupabaseItem>() {
                     @Override
                     public void onSuccess(SupabaseItem result) {
+                        if (result.getExpiresAt() != null) {
+                            FoodExpiryScheduler.registerExpiry(context, TimeUtils.parseTimestamp(result.getExpiresAt()));
+                        }
                         Toast.makeText(context, "Item shared", Toast.LENGTH_SHORT).show();
                         clearForm();
                         resetButtonState();
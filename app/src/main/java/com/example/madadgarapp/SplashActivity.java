@@ -2,7 +2,6 @@ package com.example.madadgarapp;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
 import android.view.View;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
@@ -11,9 +10,9 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-public class SplashActivity extends AppCompatActivity {
+import com.example.madadgarapp.utils.AppStartup;
 
-    private static final int SPLASH_TIMEOUT = 3000; // 3 seconds
+public class SplashActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -43,22 +42,21 @@ public class SplashActivity extends AppCompatActivity {
         tagline.startAnimation(slideUp);
         splashContent.startAnimation(pulse);
 
-        // Create a handler to delay the transition to the login screen
-        new Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                // This method will be executed after the specified delay
-                // Launch the auth selection activity
-                Intent intent = new Intent(SplashActivity.this, AuthSelectionActivity.class);
-                startActivity(intent);
-                
-                // Close this activity to prevent going back to splash screen
-                finish();
-                
-                // Apply a fade transition between activities
-                overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
+        // Move on as soon as the Supabase client the next screen needs is ready
+        AppStartup.whenFinished("supabase", () -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
             }
-        }, SPLASH_TIMEOUT);
+            // Launch the auth selection activity
+            Intent intent = new Intent(SplashActivity.this, AuthSelectionActivity.class);
+            startActivity(intent);
+            
+            // Close this activity to prevent going back to splash screen
+            finish();
+            
+            // Apply a fade transition between activities
+            overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
+        });
     }
 }
 
@@ -1,28 +1,37 @@
 package com.example.madadgarapp.activities;
 
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.view.WindowManager;
-import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
-import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
 import com.example.madadgarapp.R;
+import com.example.madadgarapp.ui.TiledImageView;
+
+import java.io.File;
 
 /**
- * Activity to display images in full-screen mode
+ * Activity to display images in full-screen mode. The original is downloaded to Glide's disk
+ * cache and shown with {@link TiledImageView}, so it can be zoomed without decoding it whole.
  */
 public class FullScreenImageActivity extends AppCompatActivity {
 
     public static final String EXTRA_IMAGE_URL = "extra_image_url";
     public static final String EXTRA_IMAGE_TITLE = "extra_image_title";
 
-    private ImageView imageView;
+    private static final String TAG = "FullScreenImageActivity";
+
+    private TiledImageView imageView;
     private ProgressBar progressBar;
 
     @Override
@@ -45,6 +54,17 @@ public class FullScreenImageActivity extends AppCompatActivity {
 
         // Set click listener to close activity
         imageView.setOnClickListener(v -> finish());
+        imageView.setOnImageLoadListener(new TiledImageView.OnImageLoadListener() {
+            @Override
+            public void onImageReady() {
+                progressBar.setVisibility(View.GONE);
+            }
+
+            @Override
+            public void onImageLoadFailed(Exception e) {
+                showLoadError();
+            }
+                });
     }
 
     private void loadImage() {
@@ -65,16 +85,32 @@ public class FullScreenImageActivity extends AppCompatActivity {
         // Show progress bar
         progressBar.setVisibility(View.VISIBLE);
 
-        // Load image with Glide
+        // Fetch the original into the disk cache; the view decodes it in tiles from there.
+        // The activity's request manager clears the target when the activity is destroyed.
         Glide.with(this)
+                .downloadOnly()
                 .load(imageUrl)
-                .apply(new RequestOptions()
-                        .diskCacheStrategy(DiskCacheStrategy.ALL)
-                        .placeholder(R.drawable.placeholder_image)
-                        .error(R.drawable.placeholder_image))
-                .into(imageView);
+                .into(new CustomTarget<File>() {
+                    @Override
+                    public void onResourceReady(@NonNull File file, @Nullable Transition<? super File> transition) {
+                        imageView.setImageFile(file);
+                    }
+
+                    @Override
+                    public void onLoadFailed(@Nullable Drawable errorDrawable) {
+                        Log.e(TAG, "Failed to download image: " + imageUrl);
+                        showLoadError();
+                    }
+
+                    @Override
+                    public void onLoadCleared(@Nullable Drawable placeholder) {
+                        // The view keeps its own decoder open on the file
+                    }
+                });
+    }
 
-        // Hide progress bar after loading
+    private void showLoadError() {
         progressBar.setVisibility(View.GONE);
+        Toast.makeText(this, "Unable to load image", Toast.LENGTH_SHORT).show();
     }
 }
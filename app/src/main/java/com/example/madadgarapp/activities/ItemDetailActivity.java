@@ -2,6 +2,7 @@ package com.example.madadgarapp.activities;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Bundle;
 import android.view.Menu;
@@ -18,8 +19,10 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
 import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
 import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
 import com.example.madadgarapp.R;
 import com.example.madadgarapp.adapters.MediaAdapter;
 import com.example.madadgarapp.models.Item;
@@ -35,6 +38,9 @@ public class ItemDetailActivity extends AppCompatActivity {
 
     public static final String EXTRA_ITEM = "extra_item";
 
+    // Pages on each side of the current one whose images are fetched ahead of a swipe
+    private static final int PREFETCH_DISTANCE = 2;
+
     private ViewPager2 mediaViewPager;
     private LinearLayout mediaIndicators;
     private ImageView videoPlayOverlay;
@@ -51,6 +57,9 @@ public class ItemDetailActivity extends AppCompatActivity {
 
     private Item currentItem;
     private MediaAdapter mediaAdapter;
+    private final List<Target<Drawable>> prefetchTargets = new ArrayList<>();
+    private int mediaWidth;
+    private int mediaHeight;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -200,10 +209,22 @@ public class ItemDetailActivity extends AppCompatActivity {
         
         android.util.Log.d("ItemDetailActivity", "Total media items: " + mediaItems.size());
         
-        // Setup adapter
+        // Setup adapter; the pager is full width, so pages are shown at screen width
+        mediaWidth = getResources().getDisplayMetrics().widthPixels;
+        mediaHeight = getResources().getDimensionPixelSize(R.dimen.media_pager_height);
         mediaAdapter = new MediaAdapter(this, mediaItems);
+        mediaAdapter.setImageSize(mediaWidth, mediaHeight);
         mediaViewPager.setAdapter(mediaAdapter);
         
+        // Keep the neighbouring pages laid out so swiping back and forth reuses them
+        mediaViewPager.setOffscreenPageLimit(1);
+        mediaViewPager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
+            @Override
+            public void onPageSelected(int position) {
+                prefetchAround(position);
+            }
+        });
+        
         // Setup indicators if more than one media item
         if (mediaItems.size() > 1) {
             setupMediaIndicators(mediaItems.size());
@@ -212,6 +233,44 @@ public class ItemDetailActivity extends AppCompatActivity {
         }
     }
     
+    /**
+     * Fetch and decode the images of nearby pages into the memory cache at display size
+     */
+    private void prefetchAround(int position) {
+        cancelPrefetch();
+        RequestManager glide = Glide.with(this);
+        for (int distance = 1; distance <= PREFETCH_DISTANCE; distance++) {
+            for (int neighbour : new int[] {position + distance, position - distance}) {
+                if (mediaAdapter.isImageAt(neighbour)) {
+                    prefetchTargets.add(mediaAdapter.imageRequest(glide, neighbour)
+                            .preload(mediaWidth, mediaHeight));
+                }
+            }
+        }
+    }
+
+    private void cancelPrefetch() {
+        RequestManager glide = Glide.with(this);
+        for (Target<Drawable> target : prefetchTargets) {
+            glide.clear(target);
+        }
+        prefetchTargets.clear();
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (mediaAdapter != null) {
+            prefetchAround(mediaViewPager.getCurrentItem());
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        cancelPrefetch();
+        super.onStop();
+    }
+
     private void setupMediaIndicators(int count) {
         mediaIndicators.removeAllViews();
         mediaIndicators.setVisibility(View.VISIBLE);
@@ -1,6 +1,8 @@
 package com.example.madadgarapp.adapters;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,32 +15,91 @@ import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.resource.bitmap.CenterCrop;
 import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
 import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.example.madadgarapp.R;
 import com.example.madadgarapp.models.Item;
+import com.example.madadgarapp.utils.CategoryFacetCounts;
+import com.example.madadgarapp.utils.FavoriteManager;
+import com.example.madadgarapp.utils.FeedPreferences;
+import com.example.madadgarapp.utils.SpatialGridIndex;
+import com.example.madadgarapp.utils.StorageImageUrls;
 import com.example.madadgarapp.utils.TimeUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder> {
+public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder>
+        implements ListPreloader.PreloadModelProvider<Item> {
 
     private final Context context;
     private final OnItemClickListener listener;
     private List<Item> allItems = new ArrayList<>();
+    // Server search hits that aren't in the feed; shown only until the search changes
+    private final List<Item> searchResults = new ArrayList<>();
     private String currentQuery = "";
     private String currentCategory = "";
     private com.example.madadgarapp.utils.LocationUtils.Coordinates currentLocation;
+    private final ItemExpiryTracker expiryTracker = new ItemExpiryTracker(this::onExpiryDeadline);
+    private final ItemFilterEngine filterEngine = new ItemFilterEngine();
+    // Null unless this adapter shows the feed the category counts describe
+    private final CategoryFacetCounts facetCounts;
+    private Runnable onListChangedListener;
+    private final FavoriteManager.OnFavoriteChangedListener favoriteListener =
+            (itemId, favourite) -> notifyChanged(Collections.singleton(itemId), PAYLOAD_FAVORITE);
+
+    // Feed radius around the user's location and whether the feed is ordered nearest first
+    private double radiusKm = FeedPreferences.DEFAULT_RADIUS_KM;
+    private boolean sortByDistance;
+    private Map<String, String> distanceLabels = Collections.emptyMap();
+
+    // Rows ahead of the visible ones whose images are fetched during scrolling
+    private static final int PRELOAD_ROWS = 8;
+
+    // Smaller location changes don't refilter the feed or relabel distances
+    private static final double LOCATION_REFRESH_KM = 0.1; // 100 m
+
+    // Payload for rows whose badge changed but whose content did not
+    static final Object PAYLOAD_BADGE = "payload_badge";
+    // Payload for rows whose distance label changed
+    static final Object PAYLOAD_DISTANCE = "payload_distance";
+    // Payload for rows whose favourite state changed
+    static final Object PAYLOAD_FAVORITE = "payload_favorite";
+    // Payload for rows whose relative time label changed
+    static final Object PAYLOAD_TIME = "payload_time";
+    // Payload for rows whose image changed
+    static final Object PAYLOAD_IMAGE = "payload_image";
 
     public interface OnItemClickListener {
         void onItemClick(Item item);
     }
 
     public ItemAdapter(Context context, OnItemClickListener listener) {
+        this(context, listener, null);
+    }
+
+    /**
+     * @param facetCounts Category counts to keep up to date with the items this adapter can
+     *                    show, or null for lists that aren't the feed
+     */
+    public ItemAdapter(Context context, OnItemClickListener listener, CategoryFacetCounts facetCounts) {
         super(DIFF_CALLBACK);
         this.context = context;
         this.listener = listener;
+        this.facetCounts = facetCounts;
     }
 
     private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = 
@@ -50,14 +111,58 @@ public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder> {
 
                 @Override
                 public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
-                    return oldItem.getTitle().equals(newItem.getTitle()) &&
-                           oldItem.getDescription().equals(newItem.getDescription()) &&
-                           oldItem.getMainCategory().equals(newItem.getMainCategory()) &&
-                           oldItem.getSubCategory().equals(newItem.getSubCategory()) &&
-                           oldItem.getLocation().equals(newItem.getLocation());
+                    return sameText(oldItem, newItem) &&
+                           oldItem.getCreatedAt() == newItem.getCreatedAt() &&
+                           sameBadgeInputs(oldItem, newItem) &&
+                           Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+                }
+
+                /**
+                 * Name the parts of the row that changed so only those views are updated.
+                 * Text changes fall back to a full bind.
+                 */
+                @Override
+                public Object getChangePayload(@NonNull Item oldItem, @NonNull Item newItem) {
+                    if (!sameText(oldItem, newItem)) {
+                        return null;
+                    }
+                    Set<Object> payloads = new HashSet<>();
+                    if (oldItem.getCreatedAt() != newItem.getCreatedAt()) {
+                        payloads.add(PAYLOAD_TIME);
+                        payloads.add(PAYLOAD_BADGE);
+                    }
+                    if (!sameBadgeInputs(oldItem, newItem)) {
+                        payloads.add(PAYLOAD_BADGE);
+                    }
+                    if (!Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl())) {
+                        payloads.add(PAYLOAD_IMAGE);
+                    }
+                    return payloads;
                 }
             };
 
+    private static boolean sameText(Item oldItem, Item newItem) {
+        return Objects.equals(oldItem.getTitle(), newItem.getTitle()) &&
+               Objects.equals(oldItem.getDescription(), newItem.getDescription()) &&
+               Objects.equals(oldItem.getMainCategory(), newItem.getMainCategory()) &&
+               Objects.equals(oldItem.getSubCategory(), newItem.getSubCategory()) &&
+               Objects.equals(oldItem.getLocation(), newItem.getLocation());
+    }
+
+    private static boolean sameBadgeInputs(Item oldItem, Item newItem) {
+        return oldItem.getExpiration() == newItem.getExpiration() &&
+               oldItem.getViewCount() == newItem.getViewCount();
+    }
+
+    /**
+     * The row layout doubles as the view type, so rows stay apart in the shared
+     * {@link com.example.madadgarapp.utils.RowViewPool}
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_layout;
+    }
+
     @NonNull
     @Override
     public ItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -69,44 +174,277 @@ public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder> {
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
         Item item = getItem(position);
-        holder.bind(item, listener);
+        holder.bind(item, distanceLabels.get(item.getId()), listener);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // DiffUtil delivers a set of payloads per change; notifyItemChanged delivers single ones
+        Set<Object> changes = new HashSet<>();
+        for (Object payload : payloads) {
+            if (payload instanceof Collection) {
+                changes.addAll((Collection<?>) payload);
+            } else {
+                changes.add(payload);
+            }
+        }
+        Item item = getItem(position);
+        // The click listeners capture the item, so keep them pointing at the current instance
+        holder.bindClicks(item, listener);
+        if (changes.contains(PAYLOAD_TIME)) {
+            holder.bindTime(item);
+        }
+        if (changes.contains(PAYLOAD_BADGE)) {
+            holder.bindBadge(item, System.currentTimeMillis());
+        }
+        if (changes.contains(PAYLOAD_DISTANCE)) {
+            holder.bindDistance(distanceLabels.get(item.getId()));
+        }
+        if (changes.contains(PAYLOAD_FAVORITE)) {
+            holder.bindFavorite(item);
+        }
+        if (changes.contains(PAYLOAD_IMAGE)) {
+            holder.bindImage(item);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        expiryTracker.start();
+        FavoriteManager.addListener(favoriteListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        expiryTracker.stop();
+        FavoriteManager.removeListener(favoriteListener);
+        super.onDetachedFromRecyclerView(recyclerView);
     }
 
     public void setItems(List<Item> items) {
         allItems = new ArrayList<>(items);
+        onItemsChanged();
+    }
+
+    /**
+     * Show server search hits that are not in the feed, on top of it, until
+     * {@link #clearSearchResults()}. Items already present are left untouched.
+     *
+     * @return The items that were actually added
+     */
+    public List<Item> addSearchResults(List<Item> items) {
+        Set<String> knownIds = new HashSet<>();
+        for (Item item : allItems) {
+            knownIds.add(item.getId());
+        }
+        for (Item item : searchResults) {
+            knownIds.add(item.getId());
+        }
+        List<Item> added = new ArrayList<>();
+        for (Item item : items) {
+            if (item.getId() != null && knownIds.add(item.getId())) {
+                added.add(item);
+            }
+        }
+        if (!added.isEmpty()) {
+            searchResults.addAll(added);
+            onItemsChanged();
+        }
+        return added;
+    }
+
+    /**
+     * Drop the server search hits, e.g. when the query changes or is cleared
+     */
+    public void clearSearchResults() {
+        if (!searchResults.isEmpty()) {
+            searchResults.clear();
+            onItemsChanged();
+        }
+    }
+
+    private void onItemsChanged() {
+        // Search hits are filtered like feed rows but neither tracked nor counted;
+        // the filter drops them once they expire
+        expiryTracker.setItems(allItems);
+        filterEngine.setItems(allItems, searchResults);
         filterItems();
     }
 
+    /**
+     * Listener invoked on the main thread whenever a filtered list has been applied
+     */
+    public void setOnListChangedListener(Runnable listener) {
+        this.onListChangedListener = listener;
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<Item> previousList, @NonNull List<Item> currentList) {
+        super.onCurrentListChanged(previousList, currentList);
+        if (onListChangedListener != null) {
+            onListChangedListener.run();
+        }
+    }
+
+    /**
+     * Drop rows that just expired and relabel rows whose badge changed,
+     * without rebinding anything else
+     */
+    private void onExpiryDeadline(Set<String> itemIds, long now) {
+        if (removeExpired(allItems, itemIds, now)) {
+            filterItems(() -> notifyBadgeChanged(itemIds));
+        } else {
+            notifyBadgeChanged(itemIds);
+        }
+    }
+
+    private static boolean removeExpired(List<Item> items, Set<String> itemIds, long now) {
+        boolean removed = false;
+        for (Iterator<Item> it = items.iterator(); it.hasNext(); ) {
+            Item item = it.next();
+            if (itemIds.contains(item.getId()) && ItemExpiryTracker.isExpired(item, now)) {
+                it.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private void notifyBadgeChanged(Set<String> itemIds) {
+        notifyChanged(itemIds, PAYLOAD_BADGE);
+    }
+
+    private void notifyChanged(Set<String> itemIds, Object payload) {
+        List<Item> current = getCurrentList();
+        for (int i = 0; i < current.size(); i++) {
+            if (itemIds.contains(current.get(i).getId())) {
+                notifyItemChanged(i, payload);
+            }
+        }
+    }
+
+    /**
+     * Update the user's location. Moves shorter than {@link #LOCATION_REFRESH_KM} are ignored
+     * so GPS jitter doesn't refilter the feed.
+     */
     public void setCurrentLocation(com.example.madadgarapp.utils.LocationUtils.Coordinates location) {
+        if (location != null && currentLocation != null
+                && SpatialGridIndex.distanceKm(currentLocation.getLatitude(), currentLocation.getLongitude(),
+                        location.getLatitude(), location.getLongitude()) < LOCATION_REFRESH_KM) {
+            return;
+        }
         this.currentLocation = location;
         filterItems();
     }
 
+    /**
+     * Only show items within this distance of the user
+     */
+    public void setRadiusKm(double radiusKm) {
+        if (this.radiusKm != radiusKm) {
+            this.radiusKm = radiusKm;
+            filterItems();
+        }
+    }
+
+    /**
+     * Order the feed nearest first instead of by relevance/recency
+     */
+    public void setSortByDistance(boolean sortByDistance) {
+        if (this.sortByDistance != sortByDistance) {
+            this.sortByDistance = sortByDistance;
+            filterItems();
+        }
+    }
+
     public void filterItems(String query, String category) {
         currentQuery = query != null ? query.toLowerCase() : "";
-        currentCategory = category;
+        currentCategory = category != null ? category : "";
         filterItems();
     }
 
     private void filterItems() {
-        List<Item> filteredList = new ArrayList<>();
-        
-        double radiusKm = 0.5; // 500 m
-        for (Item item : allItems) {
-            boolean matchesText = item.matchesFilters(currentQuery, currentCategory);
-            boolean withinRadius = true;
-            if (currentLocation != null && item.getLatitude() != null && item.getLongitude() != null) {
-                withinRadius = com.example.madadgarapp.utils.LocationUtils.isWithinRadius(
-                        currentLocation,
-                        new com.example.madadgarapp.utils.LocationUtils.Coordinates(item.getLatitude(), item.getLongitude()),
-                        radiusKm);
-            }
-            if (matchesText && withinRadius) {
-                filteredList.add(item);
+        filterItems(null);
+    }
+
+    private void filterItems(Runnable commitCallback) {
+        // Matching runs off the main thread; only the latest request is applied
+        filterEngine.filter(currentQuery, currentCategory, currentLocation, radiusKm, sortByDistance,
+                (result, labels, categoryCounts) -> {
+                    if (facetCounts != null) {
+                        facetCounts.setLocalCounts(categoryCounts);
+                    }
+                    Set<String> relabeled = new HashSet<>();
+                    for (Item item : getCurrentList()) {
+                        if (!Objects.equals(distanceLabels.get(item.getId()), labels.get(item.getId()))) {
+                            relabeled.add(item.getId());
+                        }
+                    }
+                    distanceLabels = labels;
+                    submitList(result, () -> {
+                        // Rows that DiffUtil kept in place still show the old distance
+                        if (!relabeled.isEmpty()) {
+                            notifyChanged(relabeled, PAYLOAD_DISTANCE);
+                        }
+                        if (commitCallback != null) {
+                            commitCallback.run();
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Scroll listener that loads images for the rows about to come into view.
+     * Uses the same request as binding, so a preloaded image is shown straight from memory.
+     */
+    public RecyclerViewPreloader<Item> createImagePreloader(RequestManager glide) {
+        int sizePx = context.getResources().getDimensionPixelSize(R.dimen.image_item_size);
+        return new RecyclerViewPreloader<>(glide, this, new FixedPreloadSizeProvider<>(sizePx, sizePx), PRELOAD_ROWS);
+    }
+
+    @NonNull
+    @Override
+    public List<Item> getPreloadItems(int position) {
+        if (position >= getItemCount() || getItem(position).getImageUrl() == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(getItem(position));
+    }
+
+    @Override
+    public RequestBuilder<Drawable> getPreloadRequestBuilder(@NonNull Item item) {
+        int sizePx = context.getResources().getDimensionPixelSize(R.dimen.image_item_size);
+        return imageRequest(Glide.with(context), item.getImageUrl(), sizePx);
+    }
+
+    /**
+     * Row image request: a rendition the size of the view, cropped and rounded
+     */
+    static RequestBuilder<Drawable> imageRequest(RequestManager glide, String url, int sizePx) {
+        RequestOptions options = new RequestOptions()
+                .override(sizePx, sizePx)
+                .transform(new CenterCrop(), new RoundedCorners(16));
+        return StorageImageUrls.request(glide, url, sizePx, sizePx, options);
+    }
+
+    /**
+     * Update the relative time of visible rows whose label changed, e.g. on a
+     * {@link com.example.madadgarapp.utils.MinuteTicker} tick. Other rows are left alone.
+     */
+    public void refreshTimeLabels(RecyclerView recyclerView) {
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && holder instanceof ItemViewHolder
+                    && ((ItemViewHolder) holder).isTimeLabelStale(getItem(position))) {
+                notifyItemChanged(position, PAYLOAD_TIME);
             }
         }
-        
-        submitList(filteredList);
     }
 
     public int getFilteredItemCount() {
@@ -130,6 +468,8 @@ public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder> {
         private final TextView textItemTime;
         private final ImageView imageFavorite;
         private final TextView textItemBadge;
+        private final TextView textItemDistance;
+        private CharSequence timeLabel;
 
         public ItemViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -141,32 +481,57 @@ public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder> {
             textItemTime = itemView.findViewById(R.id.text_item_time);
             imageFavorite = itemView.findViewById(R.id.image_favorite);
             textItemBadge = itemView.findViewById(R.id.text_item_badge);
+            textItemDistance = itemView.findViewById(R.id.text_item_distance);
         }
 
-public void bind(final Item item, final OnItemClickListener listener) {
+public void bind(final Item item, final String distanceLabel, final OnItemClickListener listener) {
             long now = System.currentTimeMillis();
-            final long ONE_HOUR = 60 * 60 * 1000L;
             textItemTitle.setText(item.getTitle());
             textItemCategory.setText(item.getFullCategory());
             textItemLocation.setText(item.getLocation());
             textItemDescription.setText(item.getDescription());
-            // Set relative time using TimeUtils for better formatting
-            CharSequence relativeTime = TimeUtils.getRelativeTimeString(item.getCreatedAt());
-            textItemTime.setText(relativeTime);
+            bindTime(item);
             
-            // Favourite icon state
-            boolean isFav = com.example.madadgarapp.utils.FavoriteManager.isFavorite(itemView.getContext(), item.getId());
-            imageFavorite.setImageResource(isFav ? R.drawable.ic_favorite : R.drawable.ic_favorite_border);
-            imageFavorite.setOnClickListener(v -> {
-                boolean newState = com.example.madadgarapp.utils.FavoriteManager.toggleFavorite(v.getContext(), item.getId());
-                imageFavorite.setImageResource(newState ? R.drawable.ic_favorite : R.drawable.ic_favorite_border);
+            // Favourite icon state; toggling rebinds the row through PAYLOAD_FAVORITE
+            bindFavorite(item);
+
+            bindBadge(item, now);
+            bindDistance(distanceLabel);
+            bindImage(item);
+            bindClicks(item, listener);
+        }
+
+        void bindClicks(final Item item, final OnItemClickListener listener) {
+            imageFavorite.setOnClickListener(v -> FavoriteManager.toggleFavorite(v.getContext(), item.getId()));
+            itemView.setOnClickListener(v -> {
+                if (listener != null) {
+                    listener.onItemClick(item);
+                }
             });
+        }
+
+        void bindTime(Item item) {
+            // Set relative time using TimeUtils for better formatting
+            timeLabel = TimeUtils.getRelativeTimeString(item.getCreatedAt());
+            textItemTime.setText(timeLabel);
+        }
+
+        boolean isTimeLabelStale(Item item) {
+            return !TextUtils.equals(timeLabel, TimeUtils.getRelativeTimeString(item.getCreatedAt()));
+        }
+
+        void bindImage(Item item) {
+            // Load a view-sized image using Glide
+            int sizePx = itemView.getResources().getDimensionPixelSize(R.dimen.image_item_size);
+            imageRequest(Glide.with(imageItem.getContext()), item.getImageUrl(), sizePx)
+                    .into(imageItem);
+        }
 
-            // Badge logic
+        void bindBadge(Item item, long now) {
             String badgeText = null;
-            if (item.getCreatedAt() >= now - 24 * ONE_HOUR) {
+            if (item.getCreatedAt() >= now - ItemExpiryTracker.NEW_BADGE_MILLIS) {
                 badgeText = "NEW";
-            } else if (item.getExpiration() > 0 && item.getExpiration() - now <= 12 * ONE_HOUR) {
+            } else if (item.getExpiration() > 0 && item.getExpiration() - now <= ItemExpiryTracker.EXPIRING_BADGE_MILLIS) {
                 badgeText = "EXPIRING";
             } else if (item.getViewCount() >= 100) { // threshold for popularity
                 badgeText = "POPULAR";
@@ -177,18 +542,20 @@ public void bind(final Item item, final OnItemClickListener listener) {
             } else {
                 textItemBadge.setVisibility(View.GONE);
             }
+        }
 
-            // Load image using Glide
-            Glide.with(imageItem.getContext())
-                    .load(item.getImageUrl())
-                    .apply(new RequestOptions().transform(new RoundedCorners(16)))
-                    .into(imageItem);
-            
-            itemView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onItemClick(item);
-                }
-            });
+        void bindFavorite(Item item) {
+            boolean isFav = FavoriteManager.isFavorite(itemView.getContext(), item.getId());
+            imageFavorite.setImageResource(isFav ? R.drawable.ic_favorite : R.drawable.ic_favorite_border);
+        }
+
+        void bindDistance(String distanceLabel) {
+            if (distanceLabel != null) {
+                textItemDistance.setText(distanceLabel);
+                textItemDistance.setVisibility(View.VISIBLE);
+            } else {
+                textItemDistance.setVisibility(View.GONE);
+            }
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.example.madadgarapp.adapters;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.example.madadgarapp.models.Item;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Tracks the next moment each listed item changes state (badge switch or expiry)
+ * and fires a single main-looper timer at the earliest one.
+ * Only the items whose deadline passed are reported, so the adapter can
+ * update or remove just those rows.
+ */
+public class ItemExpiryTracker {
+
+    static final long ONE_HOUR = 60 * 60 * 1000L;
+    static final long NEW_BADGE_MILLIS = 24 * ONE_HOUR;
+    static final long EXPIRING_BADGE_MILLIS = 12 * ONE_HOUR;
+
+    public interface OnDeadlineListener {
+        /**
+         * @param itemIds IDs of items whose state changed
+         * @param now Current time in milliseconds
+         */
+        void onDeadlineReached(Set<String> itemIds, long now);
+    }
+
+    private static class Deadline implements Comparable<Deadline> {
+        final long at;
+        final Item item;
+
+        Deadline(long at, Item item) {
+            this.at = at;
+            this.item = item;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(at, other.at);
+        }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+    private final OnDeadlineListener listener;
+    private final Runnable tick = this::onTick;
+    private boolean running;
+    private long armedAt = Long.MAX_VALUE;
+
+    public ItemExpiryTracker(OnDeadlineListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replace the tracked items, e.g. after a refresh
+     */
+    public void setItems(List<Item> items) {
+        deadlines.clear();
+        long now = System.currentTimeMillis();
+        for (Item item : items) {
+            track(item, now);
+        }
+        arm();
+    }
+
+    /**
+     * Start firing deadlines (call when the list becomes visible)
+     */
+    public void start() {
+        running = true;
+        arm();
+    }
+
+    /**
+     * Stop the timer; deadlines are kept and fire on the next start
+     */
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tick);
+        armedAt = Long.MAX_VALUE;
+    }
+
+    /**
+     * Whether the item has passed its expiry time
+     */
+    public static boolean isExpired(Item item, long now) {
+        long expiryTime = item.getExpiryTime();
+        return expiryTime > 0 && expiryTime != Long.MAX_VALUE && expiryTime <= now;
+    }
+
+    private void track(Item item, long now) {
+        long next = nextDeadline(item, now);
+        if (next != Long.MAX_VALUE) {
+            deadlines.add(new Deadline(next, item));
+        }
+    }
+
+    /**
+     * Earliest future instant at which the item's badge or visibility changes
+     */
+    private static long nextDeadline(Item item, long now) {
+        long next = Long.MAX_VALUE;
+        long newUntil = item.getCreatedAt() + NEW_BADGE_MILLIS;
+        if (newUntil > now) {
+            next = newUntil;
+        }
+        long expiryTime = item.getExpiryTime();
+        if (expiryTime > 0 && expiryTime != Long.MAX_VALUE) {
+            long expiringFrom = expiryTime - EXPIRING_BADGE_MILLIS;
+            if (expiringFrom > now) {
+                next = Math.min(next, expiringFrom);
+            } else if (expiryTime > now) {
+                next = Math.min(next, expiryTime);
+            }
+        }
+        return next;
+    }
+
+    private void arm() {
+        if (!running || deadlines.isEmpty()) {
+            return;
+        }
+        long head = deadlines.peek().at;
+        if (head >= armedAt) {
+            return;
+        }
+        handler.removeCallbacks(tick);
+        armedAt = head;
+        long delay = Math.max(0, head - System.currentTimeMillis());
+        handler.postAtTime(tick, SystemClock.uptimeMillis() + delay);
+    }
+
+    private void onTick() {
+        armedAt = Long.MAX_VALUE;
+        long now = System.currentTimeMillis();
+        Set<String> changed = new HashSet<>();
+        while (!deadlines.isEmpty() && deadlines.peek().at <= now) {
+            Item item = deadlines.poll().item;
+            changed.add(item.getId());
+            track(item, now);
+        }
+        if (!changed.isEmpty()) {
+            listener.onDeadlineReached(changed, now);
+        }
+        arm();
+    }
+}
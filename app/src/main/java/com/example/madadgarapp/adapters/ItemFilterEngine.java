@@ -0,0 +1,376 @@
+package com.example.madadgarapp.adapters;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.madadgarapp.models.Item;
+import com.example.madadgarapp.utils.ItemSearchIndex;
+import com.example.madadgarapp.utils.LocationUtils;
+import com.example.madadgarapp.utils.SpatialGridIndex;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filters the feed on a background thread.
+ * Text queries are answered from an incrementally maintained {@link ItemSearchIndex} and
+ * come back ranked by relevance; without a query the feed order is kept. The radius check
+ * uses a {@link SpatialGridIndex} that only visits grid cells near the user, and distance
+ * labels for the matches are computed in the same pass. The radius check and the per-category
+ * counts of available items are kept between passes and only redone when the items, location
+ * or radius change or a counted item expires, so typing a query doesn't repeat them. A query
+ * that is superseded before it finishes is abandoned without delivering a result.
+ */
+public class ItemFilterEngine {
+
+    public interface Callback {
+        /**
+         * @param result Matching items in display order
+         * @param distanceLabels Formatted distance from the user by item ID; empty without a location
+         * @param categoryCounts Unexpired feed items within the radius, whatever their text, by
+         *                       "Main" and "Main > Sub" category; extra items passed to
+         *                       {@link #setItems(List, List)} are left out. The same unmodifiable
+         *                       map is delivered again while the counts are unchanged.
+         */
+        void onFiltered(List<Item> result, Map<String, String> distanceLabels,
+                        Map<String, Integer> categoryCounts);
+    }
+
+    /**
+     * Item with its filter fields precomputed
+     */
+    private static class Entry {
+        final Item item;
+        final String fullCategory;
+        // Position in the entry list, also the entry's id in the spatial index
+        final int position;
+        final boolean hasLocation;
+        // False for extra items shown alongside the feed, which the category counts leave out
+        final boolean inFeed;
+
+        Entry(Item item, int position, boolean inFeed) {
+            this.item = item;
+            this.fullCategory = item.getFullCategory();
+            this.position = position;
+            this.hasLocation = item.getLatitude() != null && item.getLongitude() != null;
+            this.inFeed = inFeed;
+        }
+    }
+
+    /**
+     * Radius check and category counts for one set of items, location and radius
+     */
+    private static class RadiusState {
+        final int itemsVersion;
+        final LocationUtils.Coordinates location;
+        final double radiusKm;
+        // Positions of entries within the radius, or null without a location
+        final BitSet inRadius;
+        Map<String, Integer> counts;
+        // When the next counted item expires
+        long countsValidUntil;
+
+        RadiusState(int itemsVersion, LocationUtils.Coordinates location, double radiusKm, BitSet inRadius) {
+            this.itemsVersion = itemsVersion;
+            this.location = location;
+            this.radiusKm = radiusKm;
+            this.inRadius = inRadius;
+        }
+
+        boolean isFor(int itemsVersion, LocationUtils.Coordinates location, double radiusKm) {
+            return this.itemsVersion == itemsVersion && Objects.equals(this.location, location)
+                    && this.radiusKm == radiusKm;
+        }
+    }
+
+    /**
+     * Parameters of one filter pass
+     */
+    private static class Query {
+        final String text;
+        final String category;
+        final LocationUtils.Coordinates location;
+        final double radiusKm;
+        final boolean sortByDistance;
+
+        Query(String text, String category, LocationUtils.Coordinates location, double radiusKm,
+              boolean sortByDistance) {
+            this.text = text;
+            this.category = category;
+            this.location = location;
+            this.radiusKm = radiusKm;
+            this.sortByDistance = sortByDistance;
+        }
+    }
+
+    // How many entries to check between cancellation checks
+    private static final int CANCEL_CHECK_INTERVAL = 64;
+
+    // Grid cell size for the spatial index, close to the usual feed radius
+    private static final double GRID_CELL_KM = 1.0;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // Only touched on the executor thread
+    private List<Entry> entries = Collections.emptyList();
+    private Map<String, Entry> entriesById = Collections.emptyMap();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    private SpatialGridIndex spatialIndex;
+    // Spatial index id -> entry position
+    private int[] spatialPositions = new int[0];
+    // Positions of entries without coordinates, which every radius includes
+    private int[] unlocatedPositions = new int[0];
+    // Bumped whenever the entries are replaced
+    private int itemsVersion;
+    private RadiusState radiusState;
+
+    public ItemFilterEngine() {
+        // Let the worker thread die while the user is not filtering
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Replace the items to filter. Only new, changed or removed items touch the
+     * search index, and that work happens on the background thread.
+     *
+     * @param feed Feed items
+     * @param extras Items shown alongside the feed, such as server search hits, that are
+     *               filtered like feed items but not counted as available
+     */
+    public void setItems(List<Item> feed, List<Item> extras) {
+        final List<Item> snapshot = new ArrayList<>(feed.size() + extras.size());
+        snapshot.addAll(feed);
+        snapshot.addAll(extras);
+        final int feedSize = feed.size();
+        executor.execute(() -> {
+            List<Entry> built = new ArrayList<>(snapshot.size());
+            Map<String, Entry> builtById = new HashMap<>();
+            for (int i = 0; i < snapshot.size(); i++) {
+                Item item = snapshot.get(i);
+                if (item.getId() == null || builtById.containsKey(item.getId())) {
+                    continue;
+                }
+                Entry entry = new Entry(item, built.size(), i < feedSize);
+                built.add(entry);
+                builtById.put(item.getId(), entry);
+
+                Entry previous = entriesById.get(item.getId());
+                if (previous == null || !sameText(previous.item, item)) {
+                    searchIndex.put(item);
+                }
+            }
+            for (String id : entriesById.keySet()) {
+                if (!builtById.containsKey(id)) {
+                    searchIndex.remove(id);
+                }
+            }
+            entries = built;
+            entriesById = builtById;
+            itemsVersion++;
+            buildSpatialIndex(built);
+        });
+    }
+
+    /**
+     * Filter the items in the background and deliver the result on the main thread.
+     * Any filter still running from an earlier call is cancelled.
+     *
+     * @param query Search text
+     * @param category Full category ("Main > Sub") or empty for all
+     * @param location User location, or null to skip the radius check
+     * @param radiusKm Radius around the location in kilometers
+     * @param sortByDistance Order nearest first instead of by relevance/feed order
+     * @param callback Receives the matching items, best match first (feed order without a query),
+     *                 their distance labels and the category counts
+     */
+    public void filter(String query, String category, LocationUtils.Coordinates location,
+                       double radiusKm, boolean sortByDistance, Callback callback) {
+        final int gen = generation.incrementAndGet();
+        final Query q = new Query(query != null ? query.trim() : "", category != null ? category : "",
+                location, radiusKm, sortByDistance);
+        executor.execute(() -> {
+            if (gen != generation.get()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+
+            RadiusState state = radiusState(q, now);
+            BitSet inRadius = state.inRadius;
+            Map<String, Integer> categoryCounts = state.counts;
+
+            List<Entry> candidates;
+            if (q.text.isEmpty()) {
+                candidates = entries;
+            } else {
+                List<ItemSearchIndex.Hit> hits = searchIndex.search(q.text, now);
+                candidates = new ArrayList<>(hits.size());
+                for (ItemSearchIndex.Hit hit : hits) {
+                    candidates.add(entriesById.get(hit.item.getId()));
+                }
+            }
+
+            List<Item> result = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (i % CANCEL_CHECK_INTERVAL == 0 && gen != generation.get()) {
+                    return;
+                }
+                Entry entry = candidates.get(i);
+                if (matches(entry, q, inRadius, now)) {
+                    result.add(entry.item);
+                }
+            }
+
+            // Distances for the matches only, in the same background pass
+            Map<String, String> labels = new HashMap<>();
+            if (q.location != null) {
+                Map<String, Double> distances = new HashMap<>();
+                for (Item item : result) {
+                    if (item.getLatitude() != null && item.getLongitude() != null) {
+                        double km = SpatialGridIndex.distanceKm(q.location.getLatitude(), q.location.getLongitude(),
+                                item.getLatitude(), item.getLongitude());
+                        distances.put(item.getId(), km);
+                        labels.put(item.getId(), LocationUtils.formatDistance(km));
+                    }
+                }
+                if (q.sortByDistance) {
+                    // Stable sort keeps relevance order among equal distances; unlocated items go last
+                    result.sort((a, b) -> Double.compare(
+                            distances.getOrDefault(a.getId(), Double.MAX_VALUE),
+                            distances.getOrDefault(b.getId(), Double.MAX_VALUE)));
+                }
+            }
+
+            mainHandler.post(() -> {
+                if (gen == generation.get()) {
+                    callback.onFiltered(result, labels, categoryCounts);
+                }
+            });
+        });
+    }
+
+    /**
+     * Radius check and category counts for the query's location and radius, reusing the last
+     * ones while the items, location and radius are the same and no counted item has expired
+     */
+    private RadiusState radiusState(Query q, long now) {
+        RadiusState state = radiusState;
+        if (state == null || !state.isFor(itemsVersion, q.location, q.radiusKm)) {
+            // Entries inside the radius, found by visiting nearby grid cells only
+            BitSet inRadius = null;
+            if (q.location != null && spatialIndex != null) {
+                inRadius = new BitSet(entries.size());
+                for (int id : spatialIndex.withinRadius(
+                        q.location.getLatitude(), q.location.getLongitude(), q.radiusKm)) {
+                    inRadius.set(spatialPositions[id]);
+                }
+            }
+            state = new RadiusState(itemsVersion, q.location, q.radiusKm, inRadius);
+            radiusState = state;
+        } else if (now < state.countsValidUntil) {
+            return state;
+        }
+        countCategories(state, now);
+        return state;
+    }
+
+    /**
+     * Count the unexpired feed entries within the radius by category. Only the entries in the
+     * radius are visited when there is a location.
+     */
+    private void countCategories(RadiusState state, long now) {
+        Map<String, Integer> counts = new HashMap<>();
+        long validUntil = Long.MAX_VALUE;
+        if (state.inRadius == null) {
+            for (Entry entry : entries) {
+                validUntil = Math.min(validUntil, count(entry, counts, now));
+            }
+        } else {
+            for (int i = state.inRadius.nextSetBit(0); i >= 0; i = state.inRadius.nextSetBit(i + 1)) {
+                validUntil = Math.min(validUntil, count(entries.get(i), counts, now));
+            }
+            for (int position : unlocatedPositions) {
+                validUntil = Math.min(validUntil, count(entries.get(position), counts, now));
+            }
+        }
+        state.counts = Collections.unmodifiableMap(counts);
+        state.countsValidUntil = validUntil;
+    }
+
+    /**
+     * Add an entry to the counts if it is an unexpired feed entry
+     *
+     * @return When the entry stops being counted, or {@link Long#MAX_VALUE} if that won't change
+     */
+    private static long count(Entry entry, Map<String, Integer> counts, long now) {
+        if (!entry.inFeed || ItemExpiryTracker.isExpired(entry.item, now)) {
+            return Long.MAX_VALUE;
+        }
+        counts.merge(entry.fullCategory, 1, Integer::sum);
+        counts.merge(entry.item.getMainCategory(), 1, Integer::sum);
+        long expiryTime = entry.item.getExpiryTime();
+        return expiryTime > 0 ? expiryTime : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param inRadius Positions of entries within the radius, or null to skip the radius check
+     */
+    private static boolean matches(Entry entry, Query q, BitSet inRadius, long now) {
+        if (!q.category.isEmpty() && !entry.fullCategory.equals(q.category)) {
+            return false;
+        }
+        if (ItemExpiryTracker.isExpired(entry.item, now)) {
+            return false;
+        }
+        // Items without coordinates are never filtered out by distance
+        return inRadius == null || !entry.hasLocation || inRadius.get(entry.position);
+    }
+
+    /**
+     * Rebuild the spatial index over the entries that have coordinates
+     */
+    private void buildSpatialIndex(List<Entry> entries) {
+        int located = 0;
+        for (Entry entry : entries) {
+            if (entry.hasLocation) {
+                located++;
+            }
+        }
+        double[] latitudes = new double[located];
+        double[] longitudes = new double[located];
+        int[] positions = new int[located];
+        int[] unlocated = new int[entries.size() - located];
+        int i = 0;
+        int j = 0;
+        for (Entry entry : entries) {
+            if (entry.hasLocation) {
+                latitudes[i] = entry.item.getLatitude();
+                longitudes[i] = entry.item.getLongitude();
+                positions[i] = entry.position;
+                i++;
+            } else {
+                unlocated[j++] = entry.position;
+            }
+        }
+        spatialIndex = new SpatialGridIndex(latitudes, longitudes, GRID_CELL_KM);
+        spatialPositions = positions;
+        unlocatedPositions = unlocated;
+    }
+
+    private static boolean sameText(Item a, Item b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && a.getCreatedAt() == b.getCreatedAt();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.madadgarapp.adapters;
 
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -15,12 +16,16 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.resource.bitmap.CenterCrop;
 import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
 import com.bumptech.glide.request.RequestOptions;
 import com.example.madadgarapp.R;
 import com.example.madadgarapp.activities.FullScreenImageActivity;
 import com.example.madadgarapp.utils.MediaUtils;
+import com.example.madadgarapp.utils.StorageImageUrls;
 
 import java.util.List;
 
@@ -42,11 +47,52 @@ public class MediaAdapter extends RecyclerView.Adapter<MediaAdapter.MediaViewHol
     private final Context context;
     private final List<MediaItem> mediaItems;
     
+    // Size images are shown at; 0 until known, in which case images load at the view's size
+    private int imageWidth;
+    private int imageHeight;
+    
     public MediaAdapter(Context context, List<MediaItem> mediaItems) {
         this.context = context;
         this.mediaItems = mediaItems;
     }
     
+    /**
+     * Set the size pages are displayed at, so images are fetched and decoded at that size
+     */
+    public void setImageSize(int widthPx, int heightPx) {
+        this.imageWidth = widthPx;
+        this.imageHeight = heightPx;
+    }
+    
+    /**
+     * @return {@code true} if the page at this position shows a loadable image
+     */
+    public boolean isImageAt(int position) {
+        if (position < 0 || position >= mediaItems.size()) {
+            return false;
+        }
+        MediaItem item = mediaItems.get(position);
+        return !item.isVideo && MediaUtils.isValidMediaUrl(MediaUtils.processMediaUrl(item.url));
+    }
+    
+    /**
+     * Request for the image page at this position. Pages and prefetches use the same request,
+     * so a prefetched page is served from the memory cache.
+     */
+    public RequestBuilder<Drawable> imageRequest(RequestManager glide, int position) {
+        String url = MediaUtils.processMediaUrl(mediaItems.get(position).url);
+        RequestOptions options = new RequestOptions()
+            .placeholder(R.drawable.placeholder_image)
+            .error(R.drawable.placeholder_image)
+            .diskCacheStrategy(DiskCacheStrategy.ALL)
+            .transform(new CenterCrop(), new RoundedCorners(8));
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            return glide.load(url).apply(options);
+        }
+        options = options.override(imageWidth, imageHeight);
+        return StorageImageUrls.request(glide, url, imageWidth, imageHeight, options);
+    }
+    
     @NonNull
     @Override
     public MediaViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -57,7 +103,7 @@ public class MediaAdapter extends RecyclerView.Adapter<MediaAdapter.MediaViewHol
     @Override
     public void onBindViewHolder(@NonNull MediaViewHolder holder, int position) {
         MediaItem item = mediaItems.get(position);
-        holder.bind(item);
+        holder.bind(item, position);
     }
     
     @Override
@@ -79,7 +125,7 @@ public class MediaAdapter extends RecyclerView.Adapter<MediaAdapter.MediaViewHol
             videoPlayButton = itemView.findViewById(R.id.video_play_button);
         }
         
-        public void bind(MediaItem item) {
+        public void bind(MediaItem item, int position) {
             String processedUrl = MediaUtils.processMediaUrl(item.url);
             String mediaType = MediaUtils.getMediaTypeDescription(processedUrl);
             
@@ -120,13 +166,7 @@ public class MediaAdapter extends RecyclerView.Adapter<MediaAdapter.MediaViewHol
                 // Load image with improved error handling
                 if (MediaUtils.isValidMediaUrl(processedUrl)) {
                     Log.d("MediaAdapter", "Loading image from valid URL: " + processedUrl);
-                    Glide.with(context)
-                        .load(processedUrl)
-                        .apply(new RequestOptions()
-                            .placeholder(R.drawable.placeholder_image)
-                            .error(R.drawable.placeholder_image)
-                            .diskCacheStrategy(DiskCacheStrategy.ALL)
-                            .transform(new RoundedCorners(8)))
+                    imageRequest(Glide.with(context), position)
                         .into(imageMedia);
                 } else {
                     Log.w("MediaAdapter", "Invalid image URL, loading placeholder: " + processedUrl);
@@ -1,6 +1,7 @@
 package com.example.madadgarapp.adapters;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -34,6 +35,9 @@ public class MyPostsAdapter extends ListAdapter<Item, MyPostsAdapter.MyPostViewH
     private final OnItemActionListener listener;
     private List<Item> allItems = new ArrayList<>();
 
+    // Payload for rows whose relative time label changed
+    static final Object PAYLOAD_TIME = "payload_time";
+
     public interface OnItemActionListener {
         void onItemClick(Item item);
         void onItemDelete(Item item);
@@ -63,6 +67,15 @@ public class MyPostsAdapter extends ListAdapter<Item, MyPostsAdapter.MyPostViewH
                 }
             };
 
+    /**
+     * The row layout doubles as the view type, so rows stay apart in the shared
+     * {@link com.example.madadgarapp.utils.RowViewPool}
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_my_post_layout;
+    }
+
     @NonNull
     @Override
     public MyPostViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -77,6 +90,32 @@ public class MyPostsAdapter extends ListAdapter<Item, MyPostsAdapter.MyPostViewH
         holder.bind(item, listener);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull MyPostViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if (payloads.contains(PAYLOAD_TIME)) {
+            holder.bindTime(getItem(position));
+        }
+    }
+
+    /**
+     * Update the relative time of visible rows whose label changed, e.g. on a
+     * {@link com.example.madadgarapp.utils.MinuteTicker} tick. Other rows are left alone.
+     */
+    public void refreshTimeLabels(RecyclerView recyclerView) {
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && holder instanceof MyPostViewHolder
+                    && ((MyPostViewHolder) holder).isTimeLabelStale(getItem(position))) {
+                notifyItemChanged(position, PAYLOAD_TIME);
+            }
+        }
+    }
+
     public void setItems(List<Item> items) {
         allItems = new ArrayList<>(items);
         submitList(new ArrayList<>(items));
@@ -98,6 +137,7 @@ public class MyPostsAdapter extends ListAdapter<Item, MyPostsAdapter.MyPostViewH
         private final TextView textItemTime;
         private final MaterialButton buttonDelete;
         private final MaterialButton buttonEdit;
+        private CharSequence timeLabel;
 
         public MyPostViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -117,9 +157,7 @@ public class MyPostsAdapter extends ListAdapter<Item, MyPostsAdapter.MyPostViewH
             textItemLocation.setText(item.getLocation());
             textItemDescription.setText(item.getDescription());
             
-            // Set relative time using TimeUtils for better formatting
-            CharSequence relativeTime = TimeUtils.getRelativeTimeString(item.getCreatedAt());
-            textItemTime.setText(relativeTime);
+            bindTime(item);
             
             // Load image using Glide
             Glide.with(imageItem.getContext())
@@ -152,6 +190,16 @@ public class MyPostsAdapter extends ListAdapter<Item, MyPostsAdapter.MyPostViewH
             });
         }
 
+        void bindTime(Item item) {
+            // Set relative time using TimeUtils for better formatting
+            timeLabel = TimeUtils.getRelativeTimeString(item.getCreatedAt());
+            textItemTime.setText(timeLabel);
+        }
+
+        boolean isTimeLabelStale(Item item) {
+            return !TextUtils.equals(timeLabel, TimeUtils.getRelativeTimeString(item.getCreatedAt()));
+        }
+
         private void showDeleteConfirmationDialog(Context context, Item item, OnItemActionListener listener) {
             new MaterialAlertDialogBuilder(context)
                     .setTitle("Delete Item")
@@ -1,5 +1,6 @@
 package com.example.madadgarapp.adapters;
 
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -27,6 +28,9 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
     private final List<UserNotification> notifications = new ArrayList<>();
     private final OnNotificationClickListener listener;
 
+    // Payload for rows whose relative time label changed
+    static final Object PAYLOAD_TIME = "payload_time";
+
     public NotificationAdapter(OnNotificationClickListener listener) {
         this.listener = listener;
     }
@@ -37,6 +41,16 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
         notifyDataSetChanged();
     }
 
+    /**
+     * Add the next page of notifications to the end of the list
+     */
+    public void appendData(List<UserNotification> list) {
+        if (list == null || list.isEmpty()) return;
+        int start = notifications.size();
+        notifications.addAll(list);
+        notifyItemRangeInserted(start, list.size());
+    }
+
     public void removeNotification(UserNotification notification) {
         int position = notifications.indexOf(notification);
         if (position != -1) {
@@ -60,6 +74,32 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
         holder.bind(n, listener);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if (payloads.contains(PAYLOAD_TIME)) {
+            holder.bindTime(notifications.get(position));
+        }
+    }
+
+    /**
+     * Update the relative time of visible rows whose label changed, e.g. on a
+     * {@link com.example.madadgarapp.utils.MinuteTicker} tick. Other rows are left alone.
+     */
+    public void refreshTimeLabels(RecyclerView recyclerView) {
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && holder instanceof ViewHolder
+                    && ((ViewHolder) holder).isTimeLabelStale(notifications.get(position))) {
+                notifyItemChanged(position, PAYLOAD_TIME);
+            }
+        }
+    }
+
     @Override
     public int getItemCount() {
         return notifications.size();
@@ -68,6 +108,8 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView textTitle, textBody, textTime;
         MaterialButton btnDelete;
+        long createdAtMillis;
+        CharSequence timeLabel;
 
         ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -81,7 +123,7 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
             // Simple mapping: type as title, body as body
             textTitle.setText(n.getTitle());
             textBody.setText(n.getBody());
-            textTime.setText(TimeUtils.getRelativeTimeString(TimeUtils.parseTimestamp(n.getCreatedAt())));
+            bindTime(n);
 
             itemView.setOnClickListener(v -> {
                 if (listener != null) listener.onNotificationClick(n);
@@ -91,5 +133,16 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
                 if (listener != null) listener.onDeleteNotificationClick(n);
             });
         }
+
+        void bindTime(UserNotification n) {
+            // Parse once per bind; ticks only re-format the label
+            createdAtMillis = TimeUtils.parseTimestamp(n.getCreatedAt());
+            timeLabel = TimeUtils.getRelativeTimeString(createdAtMillis);
+            textTime.setText(timeLabel);
+        }
+
+        boolean isTimeLabelStale(UserNotification n) {
+            return !TextUtils.equals(timeLabel, TimeUtils.getRelativeTimeString(createdAtMillis));
+        }
     }
 }
@@ -13,6 +13,7 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.DialogFragment;
 
 import com.example.madadgarapp.R;
+import com.example.madadgarapp.utils.CategoryFacetCounts;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 public class CategoryDialogFragment extends DialogFragment {
@@ -33,6 +34,10 @@ public class CategoryDialogFragment extends DialogFragment {
     
     private OnCategorySelectedListener listener;
     
+    // Re-apply counts if the feed changes while the dialog is open
+    private final CategoryFacetCounts.OnCountsChangedListener countsListener =
+            counts -> CategoryFacetBinder.bind(dialogView, counts);
+    
     public void setOnCategorySelectedListener(OnCategorySelectedListener listener) {
         this.listener = listener;
     }
@@ -49,6 +54,11 @@ public class CategoryDialogFragment extends DialogFragment {
         // Set up click listeners for categories
         setupCategoryListeners();
         
+        // Show item counts and hide empty categories
+        CategoryFacetCounts facetCounts = CategoryFacetCounts.getInstance();
+        CategoryFacetBinder.bind(dialogView, facetCounts);
+        facetCounts.refreshServerCounts();
+        
         // Create and return the dialog
         return new MaterialAlertDialogBuilder(requireContext())
                 .setView(dialogView)
@@ -56,6 +66,18 @@ public class CategoryDialogFragment extends DialogFragment {
                 .create();
     }
     
+    @Override
+    public void onStart() {
+        super.onStart();
+        CategoryFacetCounts.getInstance().addListener(countsListener);
+    }
+    
+    @Override
+    public void onStop() {
+        CategoryFacetCounts.getInstance().removeListener(countsListener);
+        super.onStop();
+    }
+    
     private void initDialogViews() {
         // Main categories layouts
         LinearLayout layoutFoodHeader = dialogView.findViewById(R.id.layout_food_header);
@@ -0,0 +1,97 @@
+package com.example.madadgarapp.dialogs;
+
+import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.example.madadgarapp.R;
+import com.example.madadgarapp.utils.CategoryFacetCounts;
+
+/**
+ * Shows item counts in an inflated {@code dialog_categories} layout and hides every
+ * category that has no items. Shared by the category dialog and both category screens.
+ */
+public final class CategoryFacetBinder {
+
+    private static final int[] FOOD_ROWS = {R.id.layout_cooked_food, R.id.layout_uncooked_food};
+    private static final String[] FOOD_SUBCATEGORIES = {"Cooked Food", "Uncooked Food"};
+
+    private static final int[] NON_FOOD_ROWS = {R.id.layout_electronics, R.id.layout_furniture,
+            R.id.layout_books, R.id.layout_clothing, R.id.layout_other};
+    private static final String[] NON_FOOD_SUBCATEGORIES = {"Electronics", "Furniture",
+            "Books", "Clothing", "Other"};
+
+    private CategoryFacetBinder() {
+    }
+
+    /**
+     * Apply the current counts to the dialog view
+     *
+     * @param dialogView View inflated from {@code dialog_categories}
+     * @param counts Facet counts to show
+     */
+    public static void bind(View dialogView, CategoryFacetCounts counts) {
+        bindMainCategory(dialogView, counts, "Food", R.id.card_food_category,
+                R.id.layout_food_header, R.id.layout_food_subcategories, FOOD_ROWS, FOOD_SUBCATEGORIES);
+        bindMainCategory(dialogView, counts, "Non-Food", R.id.card_non_food_category,
+                R.id.layout_non_food_header, R.id.layout_non_food_subcategories, NON_FOOD_ROWS, NON_FOOD_SUBCATEGORIES);
+    }
+
+    private static void bindMainCategory(View dialogView, CategoryFacetCounts counts, String mainCategory,
+                                         int cardId, int headerId, int subcategoriesId,
+                                         int[] rowIds, String[] subCategories) {
+        boolean known = counts.isKnown();
+        int total = counts.getCount(mainCategory);
+
+        // The header label is the only TextView directly inside the header row
+        LinearLayout header = dialogView.findViewById(headerId);
+        for (int i = 0; i < header.getChildCount(); i++) {
+            if (header.getChildAt(i) instanceof TextView) {
+                setCountLabel((TextView) header.getChildAt(i), known, total);
+            }
+        }
+        dialogView.findViewById(cardId).setVisibility(!known || total > 0 ? View.VISIBLE : View.GONE);
+
+        for (int i = 0; i < rowIds.length; i++) {
+            LinearLayout row = dialogView.findViewById(rowIds[i]);
+            int count = counts.getCount(mainCategory, subCategories[i]);
+            setCountLabel((TextView) row.getChildAt(0), known, count);
+            row.setVisibility(!known || count > 0 ? View.VISIBLE : View.GONE);
+        }
+        tidyDividers(dialogView.findViewById(subcategoriesId));
+    }
+
+    private static void setCountLabel(TextView label, boolean known, int count) {
+        // Remember the plain label so counts can be re-applied
+        if (label.getTag() == null) {
+            label.setTag(label.getText().toString());
+        }
+        String name = (String) label.getTag();
+        label.setText(known ? label.getContext().getString(R.string.category_with_count, name, count) : name);
+    }
+
+    /**
+     * Keep the top divider and only those dividers that sit between two visible rows
+     */
+    private static void tidyDividers(LinearLayout container) {
+        boolean rowAbove = false;
+        View pendingDivider = null;
+        for (int i = 1; i < container.getChildCount(); i++) {
+            View child = container.getChildAt(i);
+            if (child instanceof LinearLayout) {
+                if (child.getVisibility() == View.VISIBLE) {
+                    if (pendingDivider != null) {
+                        pendingDivider.setVisibility(View.VISIBLE);
+                        pendingDivider = null;
+                    }
+                    rowAbove = true;
+                }
+            } else {
+                child.setVisibility(View.GONE);
+                if (rowAbove) {
+                    pendingDivider = child;
+                }
+            }
+        }
+    }
+}
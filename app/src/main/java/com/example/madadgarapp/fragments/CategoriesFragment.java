@@ -14,6 +14,8 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.madadgarapp.R;
+import com.example.madadgarapp.dialogs.CategoryFacetBinder;
+import com.example.madadgarapp.utils.CategoryFacetCounts;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
@@ -73,10 +75,20 @@ public class CategoriesFragment extends Fragment {
         // Set up click listeners for categories
         setupCategoryListeners();
         
+        // Show item counts and hide empty categories, following the feed while open
+        CategoryFacetCounts facetCounts = CategoryFacetCounts.getInstance();
+        View countsView = dialogView;
+        CategoryFacetCounts.OnCountsChangedListener countsListener =
+                counts -> CategoryFacetBinder.bind(countsView, counts);
+        CategoryFacetBinder.bind(dialogView, facetCounts);
+        facetCounts.addListener(countsListener);
+        facetCounts.refreshServerCounts();
+        
         // Create and show the dialog
         MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(requireContext())
                 .setView(dialogView)
-                .setCancelable(true);
+                .setCancelable(true)
+                .setOnDismissListener(dialog -> facetCounts.removeListener(countsListener));
         
         builder.create().show();
     }
@@ -22,13 +22,23 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.bumptech.glide.Glide;
 import com.example.madadgarapp.R;
 import com.example.madadgarapp.activities.ItemDetailActivity;
 import com.example.madadgarapp.adapters.ItemAdapter;
+import com.example.madadgarapp.adapters.MyPostsAdapter;
 import com.example.madadgarapp.dialogs.CategoryDialogFragment;
 import com.example.madadgarapp.models.Item;
 import com.example.madadgarapp.models.SupabaseItem;
+import com.example.madadgarapp.repository.ItemSearchCursor;
+import com.example.madadgarapp.repository.ItemSearchPage;
 import com.example.madadgarapp.repository.SupabaseItemBridge;
+import com.example.madadgarapp.utils.CategoryFacetCounts;
+import com.example.madadgarapp.utils.FeedPreferences;
+import com.example.madadgarapp.utils.FoodExpiryScheduler;
+import com.example.madadgarapp.utils.LocationProvider;
+import com.example.madadgarapp.utils.MinuteTicker;
+import com.example.madadgarapp.utils.RowViewPool;
 import com.example.madadgarapp.utils.SupabaseClient;
 import com.example.madadgarapp.utils.TimeUtils;
 import com.google.android.material.chip.Chip;
@@ -46,7 +56,6 @@ import java.util.List;
 public class ItemsFragment extends Fragment {
     private RecyclerView rvItems;
     private SwipeRefreshLayout swipeRefreshLayout;
-    private com.google.android.gms.location.FusedLocationProviderClient fusedLocationClient;
     private TextInputLayout tilSearchItems;
     private TextInputEditText etSearchItems;
     private ImageButton btnFilter;
@@ -57,6 +66,8 @@ public class ItemsFragment extends Fragment {
     private ChipGroup filterChipGroup;
     private Chip chipCategory;
     private Chip chipClearFilters;
+    private Chip chipNearMe;
+    private ChipGroup radiusChipGroup;
     
     private ItemAdapter itemAdapter;
     private String currentSearchQuery = "";
@@ -67,6 +78,32 @@ public class ItemsFragment extends Fragment {
     private static final long SEARCH_DELAY_MS = 300;
     private Runnable searchRunnable;
 
+    // Server-side search reaches items beyond the first page of the feed
+    private static final int MIN_SERVER_QUERY_LENGTH = 2;
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int SEARCH_PREFETCH_DISTANCE = 5;
+    // Stop paging on our own after this many pages in a row added no rows to the list
+    private static final int MAX_EMPTY_SEARCH_PAGES = 3;
+
+    // Rows created ahead of time for the shared pool
+    private static final int PREWARM_ITEM_ROWS = 6;
+    private static final int PREWARM_MY_POST_ROWS = 6;
+
+    // Lives with the view; null while there is none
+    private SupabaseItemBridge searchBridge;
+    private String serverSearchQuery = "";
+    private ItemSearchCursor serverSearchCursor;
+    private boolean serverSearchLoading;
+    // List size when the last page was requested, and whether that page's rows are yet to be checked
+    private int searchRowsBeforePage;
+    private boolean searchPageLanded;
+    private int emptySearchPages;
+
+    // Selectable feed radii, matched by position
+    private static final int[] RADIUS_CHIP_IDS = {R.id.chip_radius_500m, R.id.chip_radius_1km,
+            R.id.chip_radius_2km, R.id.chip_radius_5km, R.id.chip_radius_10km};
+    private static final double[] RADIUS_OPTIONS_KM = {0.5, 1, 2, 5, 10};
+
     public static ItemsFragment newInstance() {
         return new ItemsFragment();
     }
@@ -82,8 +119,9 @@ public class ItemsFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         
+        searchBridge = new SupabaseItemBridge();
+        
         // Initialize views
-        fusedLocationClient = com.google.android.gms.location.LocationServices.getFusedLocationProviderClient(requireContext());
         initViews(view);
         
         // Set up RecyclerView with adapter
@@ -93,10 +131,14 @@ public class ItemsFragment extends Fragment {
         setupSearch();
         setupFilterButton();
         setupFilterChips();
+        setupFeedModeChips();
         setupSwipeToRefresh();
         
-        // Get current location first (non-blocking)
-        fetchCurrentLocation();
+        // Keep relative times on visible rows current without rebinding them
+        MinuteTicker.getInstance().observe(getViewLifecycleOwner(), () -> itemAdapter.refreshTimeLabels(rvItems));
+
+        // Follow the shared location while the view is visible; small moves are ignored by the adapter
+        LocationProvider.observe(getViewLifecycleOwner(), requireContext(), itemAdapter::setCurrentLocation);
 
         // Load items from Supabase
         requestLocationPermission();
@@ -108,8 +150,6 @@ public class ItemsFragment extends Fragment {
             ActivityCompat.requestPermissions(requireActivity(),
                 LocationUtils.REQUIRED_PERMISSIONS,
                 LOCATION_PERMISSION_REQUEST_CODE);
-        } else {
-            fetchLocationAndUpdateAdapter();
         }
     }
 
@@ -119,31 +159,13 @@ public class ItemsFragment extends Fragment {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == LOCATION_PERMISSION_REQUEST_CODE) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                fetchLocationAndUpdateAdapter();
+                LocationProvider.onPermissionGranted(requireContext());
             } else {
                 Toast.makeText(requireContext(), "Location permission is required for geofiltering", Toast.LENGTH_SHORT).show();
             }
         }
     }
 
-    private void fetchLocationAndUpdateAdapter() {
-        // Use coroutines to get location asynchronously
-        new Thread(() -> {
-            try {
-                LocationUtils.Coordinates coordinates = LocationUtils.getCurrentLocationSync(requireContext());
-                if (coordinates != null) {
-                    requireActivity().runOnUiThread(() -> {
-                        itemAdapter.setCurrentLocation(coordinates);
-                    });
-                }
-            } catch (Exception e) {
-                requireActivity().runOnUiThread(() -> {
-                    Toast.makeText(requireContext(), "Failed to fetch location", Toast.LENGTH_SHORT).show();
-                });
-            }
-        }).start();
-    }
-
     private void initViews(View view) {
         swipeRefreshLayout = view.findViewById(R.id.swipe_refresh);
         rvItems = view.findViewById(R.id.rv_items);
@@ -157,11 +179,14 @@ public class ItemsFragment extends Fragment {
         filterChipGroup = view.findViewById(R.id.filter_chip_group);
         chipCategory = view.findViewById(R.id.chip_category);
         chipClearFilters = view.findViewById(R.id.chip_clear_filters);
+        chipNearMe = view.findViewById(R.id.chip_near_me);
+        radiusChipGroup = view.findViewById(R.id.radius_chip_group);
     }
 
     private void setupRecyclerView() {
         rvItems.setLayoutManager(new LinearLayoutManager(getContext()));
         rvItems.setHasFixedSize(true);
+        RowViewPool.attach(rvItems, requireActivity());
         
         // Initialize the adapter with click listener
         itemAdapter = new ItemAdapter(requireContext(), item -> {
@@ -169,9 +194,65 @@ public class ItemsFragment extends Fragment {
             Intent intent = new Intent(getContext(), ItemDetailActivity.class);
             intent.putExtra(ItemDetailActivity.EXTRA_ITEM, item);
             startActivity(intent);
+        }, CategoryFacetCounts.getInstance());
+        
+        // Filtering completes asynchronously, so refresh the empty state once results land
+        itemAdapter.setOnListChangedListener(() -> {
+            updateEmptyState();
+            // Wait for the new rows to be laid out before checking what is in view
+            rvItems.post(this::onSearchPageApplied);
         });
         
         rvItems.setAdapter(itemAdapter);
+        
+        // Fill the shared pool while idle: feed rows for the first scroll here and in saved
+        // posts, and my-post rows for when that tab is opened
+        RowViewPool.prewarm(requireActivity(), rvItems, itemAdapter, R.layout.item_layout, PREWARM_ITEM_ROWS);
+        RowViewPool.prewarm(requireActivity(), rvItems, new MyPostsAdapter(requireContext(), null),
+                R.layout.item_my_post_layout, PREWARM_MY_POST_ROWS);
+        
+        // Warm the images of the next rows so fast flings don't show blank thumbnails
+        rvItems.addOnScrollListener(itemAdapter.createImagePreloader(Glide.with(this)));
+        
+        // Fetch the next page of server search results as the end of the list comes into view
+        rvItems.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    maybeFetchNextSearchPage();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Once a landed page has been applied to the list, note whether it added any rows and
+     * look for the next one. A page that added nothing leaves a list that can't scroll, so the
+     * scroll listener alone would never ask for more; but when the filters hide most hits,
+     * paging on regardless would walk the whole table, so a few such pages in a row stop it.
+     */
+    private void onSearchPageApplied() {
+        if (!searchPageLanded || rvItems == null) {
+            return;
+        }
+        searchPageLanded = false;
+        emptySearchPages = itemAdapter.getItemCount() > searchRowsBeforePage ? 0 : emptySearchPages + 1;
+        maybeFetchNextSearchPage();
+    }
+    
+    /**
+     * Fetch the next page of server search results if the end of the list is in view
+     */
+    private void maybeFetchNextSearchPage() {
+        if (serverSearchCursor == null || serverSearchLoading || searchPageLanded || rvItems == null
+                || emptySearchPages >= MAX_EMPTY_SEARCH_PAGES) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) rvItems.getLayoutManager();
+        if (layoutManager != null && layoutManager.findLastVisibleItemPosition()
+                >= itemAdapter.getItemCount() - SEARCH_PREFETCH_DISTANCE) {
+            fetchSearchPage(serverSearchQuery, serverSearchCursor);
+        }
     }
     
     private void setupSearch() {
@@ -193,12 +274,70 @@ public class ItemsFragment extends Fragment {
                 currentSearchQuery = s.toString().trim();
                 
                 // Debounce search to avoid too frequent updates
-                searchRunnable = () -> applyFilters();
+                searchRunnable = () -> {
+                    applyFilters();
+                    searchServer();
+                };
                 searchHandler.postDelayed(searchRunnable, SEARCH_DELAY_MS);
             }
         });
     }
     
+    /**
+     * Start a server-side search for the current query.
+     * The loaded items are filtered locally right away; matches from the server are shown on
+     * top of the feed as they arrive and dropped again when the query changes or is cleared.
+     * Any older search still in flight is cancelled.
+     */
+    private void searchServer() {
+        if (searchBridge == null) {
+            return;
+        }
+        serverSearchQuery = currentSearchQuery;
+        serverSearchCursor = null;
+        searchPageLanded = false;
+        emptySearchPages = 0;
+        itemAdapter.clearSearchResults();
+        if (serverSearchQuery.length() < MIN_SERVER_QUERY_LENGTH) {
+            searchBridge.cancelSearch();
+            serverSearchLoading = false;
+            return;
+        }
+        fetchSearchPage(serverSearchQuery, null);
+    }
+    
+    private void fetchSearchPage(String query, @Nullable ItemSearchCursor cursor) {
+        serverSearchLoading = true;
+        searchRowsBeforePage = itemAdapter.getItemCount();
+        searchBridge.searchItems(query, cursor, SEARCH_PAGE_SIZE, new SupabaseItemBridge.RepositoryCallback<ItemSearchPage>() {
+            @Override
+            public void onSuccess(ItemSearchPage page) {
+                if (!isAdded() || !query.equals(serverSearchQuery)) {
+                    return;
+                }
+                serverSearchLoading = false;
+                serverSearchCursor = page.getNextCursor();
+                searchPageLanded = true;
+                List<Item> added = itemAdapter.addSearchResults(toFeedItems(page.getItems()));
+                if (added.isEmpty()) {
+                    // Nothing new to lay out, so no list change will trigger the check
+                    onSearchPageApplied();
+                }
+            }
+            
+            @Override
+            public void onError(String error) {
+                if (!query.equals(serverSearchQuery)) {
+                    return;
+                }
+                // Keep showing local matches; the next keystroke retries
+                serverSearchLoading = false;
+                serverSearchCursor = null;
+                android.util.Log.w("ItemsFragment", "Server search failed: " + error);
+            }
+        });
+    }
+    
     private void setupFilterButton() {
         btnFilter.setOnClickListener(v -> showCategoriesDialog());
     }
@@ -221,23 +360,39 @@ public class ItemsFragment extends Fragment {
         });
     }
 
-    // Load / refresh items
-    private void fetchCurrentLocation() {
-        if (!com.example.madadgarapp.utils.LocationUtils.hasLocationPermission(requireContext())) {
-            // Location permission not granted; skip radius filter
-            return;
+    private void setupFeedModeChips() {
+        // Restore the saved radius and near-me mode before listening for changes
+        double radiusKm = FeedPreferences.getRadiusKm(requireContext());
+        int checkedId = RADIUS_CHIP_IDS[0];
+        for (int i = 0; i < RADIUS_OPTIONS_KM.length; i++) {
+            if (RADIUS_OPTIONS_KM[i] == radiusKm) {
+                checkedId = RADIUS_CHIP_IDS[i];
+            }
         }
-        fusedLocationClient.getLastLocation().addOnSuccessListener(location -> {
-            if (location != null) {
-                com.example.madadgarapp.utils.LocationUtils.Coordinates coords =
-                        new com.example.madadgarapp.utils.LocationUtils.Coordinates(location.getLatitude(), location.getLongitude());
-                if (itemAdapter != null) {
-                    itemAdapter.setCurrentLocation(coords);
+        radiusChipGroup.check(checkedId);
+        chipNearMe.setChecked(FeedPreferences.isNearMeEnabled(requireContext()));
+        itemAdapter.setRadiusKm(radiusKm);
+        itemAdapter.setSortByDistance(chipNearMe.isChecked());
+
+        chipNearMe.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            FeedPreferences.setNearMeEnabled(requireContext(), isChecked);
+            itemAdapter.setSortByDistance(isChecked);
+        });
+
+        radiusChipGroup.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (checkedIds.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < RADIUS_CHIP_IDS.length; i++) {
+                if (RADIUS_CHIP_IDS[i] == checkedIds.get(0)) {
+                    FeedPreferences.setRadiusKm(requireContext(), RADIUS_OPTIONS_KM[i]);
+                    itemAdapter.setRadiusKm(RADIUS_OPTIONS_KM[i]);
                 }
             }
         });
     }
 
+    // Load / refresh items
     private void loadItems() {
         if (!swipeRefreshLayout.isRefreshing()) {
             showLoading(true);
@@ -248,29 +403,13 @@ public class ItemsFragment extends Fragment {
         bridge.getActiveItems(50, 0, new SupabaseItemBridge.RepositoryCallback<List<SupabaseItem>>() {
             @Override
             public void onSuccess(List<SupabaseItem> supabaseItems) {
-                // Convert SupabaseItems to Items for adapter, excluding current user's own posts
-                List<Item> items = new ArrayList<>();
-
-                // Identify current user (if authenticated)
-                String currentUserId = null;
-                if (SupabaseClient.AuthHelper.INSTANCE.isAuthenticated()) {
-                    var currentUser = SupabaseClient.AuthHelper.INSTANCE.getCurrentUser();
-                    if (currentUser != null) {
-                        currentUserId = currentUser.getId();
-                    }
-                }
-
-                for (SupabaseItem supabaseItem : supabaseItems) {
-                    // Skip items that belong to the current user
-                    if (currentUserId != null && currentUserId.equals(supabaseItem.getOwnerId())) {
-                        continue;
-                    }
-                    Item item = convertSupabaseItemToItem(supabaseItem);
-                    items.add(item);
-                }
+                List<Item> items = toFeedItems(supabaseItems);
                 
                 itemAdapter.setItems(items);
                 applyFilters();
+                FoodExpiryScheduler.registerItems(requireContext(), items);
+                // The refresh dropped earlier server matches; fetch them again
+                searchServer();
                 showLoading(false);
                 if (swipeRefreshLayout.isRefreshing()) {
                     swipeRefreshLayout.setRefreshing(false);
@@ -300,6 +439,31 @@ public class ItemsFragment extends Fragment {
         });
     }
     
+    /**
+     * Convert SupabaseItems to Items for adapter, excluding current user's own posts
+     */
+    private List<Item> toFeedItems(List<SupabaseItem> supabaseItems) {
+        List<Item> items = new ArrayList<>();
+
+        // Identify current user (if authenticated)
+        String currentUserId = null;
+        if (SupabaseClient.AuthHelper.INSTANCE.isAuthenticated()) {
+            var currentUser = SupabaseClient.AuthHelper.INSTANCE.getCurrentUser();
+            if (currentUser != null) {
+                currentUserId = currentUser.getId();
+            }
+        }
+
+        for (SupabaseItem supabaseItem : supabaseItems) {
+            // Skip items that belong to the current user
+            if (currentUserId != null && currentUserId.equals(supabaseItem.getOwnerId())) {
+                continue;
+            }
+            items.add(convertSupabaseItemToItem(supabaseItem));
+        }
+        return items;
+    }
+    
     /**
      * Convert SupabaseItem to Item for adapter compatibility
      */
@@ -440,6 +604,8 @@ public class ItemsFragment extends Fragment {
     public void onDestroyView() {
         // Remove any pending search callbacks
         searchHandler.removeCallbacks(searchRunnable);
+        searchBridge.cleanup();
+        searchBridge = null;
         super.onDestroyView();
     }
     
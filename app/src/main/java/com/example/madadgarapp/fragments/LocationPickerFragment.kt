@@ -12,6 +12,7 @@ import androidx.core.content.ContextCompat
 import androidx.fragment.app.Fragment
 import androidx.lifecycle.lifecycleScope
 import com.example.madadgarapp.R
+import com.example.madadgarapp.utils.LocationProvider
 import com.example.madadgarapp.utils.LocationUtils
 import com.google.android.material.button.MaterialButton
 import com.google.android.material.textfield.TextInputEditText
@@ -105,7 +106,10 @@ class LocationPickerFragment : Fragment() {
                 btnGetCurrentLocation.isEnabled = false
                 btnGetCurrentLocation.text = "Getting location..."
                 
-                val coordinates = context?.let { LocationUtils.getCurrentLocation(it) }
+                // Pinning a post needs a tighter fix than the feed; a recent shared fix is reused if good enough
+                val coordinates = context?.let {
+                    LocationProvider.getLocation(it, LocationProvider.MAX_FIX_AGE_MS, LocationProvider.PICKER_ACCURACY_METERS)
+                }
                 
                 if (coordinates != null) {
                     selectedCoordinates = coordinates
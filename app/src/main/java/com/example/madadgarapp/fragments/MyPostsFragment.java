@@ -21,6 +21,9 @@ import com.example.madadgarapp.repository.SupabaseItemBridge;
 import com.example.madadgarapp.models.SupabaseItem;
 import com.example.madadgarapp.models.Item;
 import com.example.madadgarapp.adapters.MyPostsAdapter;
+import com.example.madadgarapp.utils.FoodExpiryScheduler;
+import com.example.madadgarapp.utils.MinuteTicker;
+import com.example.madadgarapp.utils.RowViewPool;
 import com.example.madadgarapp.utils.TimeUtils;
 
 import java.util.ArrayList;
@@ -49,6 +52,14 @@ public class MyPostsFragment extends Fragment {
 
         // Set up RecyclerView
         rvMyPosts.setLayoutManager(new LinearLayoutManager(getContext()));
+        RowViewPool.attach(rvMyPosts, requireActivity());
+        
+        // Keep "posted ... ago" labels current while the screen is visible
+        MinuteTicker.getInstance().observe(getViewLifecycleOwner(), () -> {
+            if (rvMyPosts.getAdapter() instanceof MyPostsAdapter) {
+                ((MyPostsAdapter) rvMyPosts.getAdapter()).refreshTimeLabels(rvMyPosts);
+            }
+        });
         
         // Initially show empty state
         showEmptyState(true);
@@ -143,6 +154,7 @@ public class MyPostsFragment extends Fragment {
                 
                 // Update adapter data
                 ((MyPostsAdapter) rvMyPosts.getAdapter()).setItems(items);
+                FoodExpiryScheduler.registerItems(requireContext(), items);
                 
                 // Show appropriate state
                 showEmptyState(items.isEmpty());
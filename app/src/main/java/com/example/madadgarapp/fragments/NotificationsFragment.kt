@@ -1,6 +1,7 @@
 package com.example.madadgarapp.fragments
 
 import android.os.Bundle
+import android.os.SystemClock
 import android.util.Log
 import android.view.LayoutInflater
 import android.view.View
@@ -16,7 +17,9 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout
 import com.example.madadgarapp.R
 import com.example.madadgarapp.adapters.NotificationAdapter
 import com.example.madadgarapp.models.UserNotification
+import com.example.madadgarapp.repository.NotificationCursor
 import com.example.madadgarapp.repository.NotificationRepository
+import com.example.madadgarapp.utils.MinuteTicker
 import dagger.hilt.android.AndroidEntryPoint
 import kotlinx.coroutines.launch
 import javax.inject.Inject
@@ -26,11 +29,21 @@ class NotificationsFragment : Fragment() {
 
     companion object {
         private const val TAG = "NotificationsFragment"
+        private const val PAGE_SIZE = 30
+        // Rows from the end of the list at which the next page is fetched
+        private const val LOAD_MORE_DISTANCE = 5
+        // After a failed page, scrolling doesn't retry it for this long
+        private const val LOAD_MORE_RETRY_DELAY_MS = 10_000L
     }
 
     private lateinit var swipeRefresh: SwipeRefreshLayout
     private lateinit var textEmpty: TextView
     private lateinit var adapter: NotificationAdapter
+
+    private var nextCursor: NotificationCursor? = null
+    private var loadingPage = false
+    private var pageRequest = 0
+    private var loadMoreBlockedUntil = 0L
     
     @Inject
     lateinit var repo: NotificationRepository
@@ -63,75 +76,88 @@ class NotificationsFragment : Fragment() {
         adapter = NotificationAdapter(notificationListener)
         recycler.layoutManager = LinearLayoutManager(requireContext())
         recycler.adapter = adapter
+        
+        // Keep relative times current while the screen is visible
+        MinuteTicker.getInstance().observe(viewLifecycleOwner) { adapter.refreshTimeLabels(recycler) }
 
         swipeRefresh.setOnRefreshListener { loadData() }
 
+        recycler.addOnScrollListener(object : RecyclerView.OnScrollListener() {
+            override fun onScrolled(recyclerView: RecyclerView, dx: Int, dy: Int) {
+                if (dy <= 0 || nextCursor == null || loadingPage) return
+                if (SystemClock.uptimeMillis() < loadMoreBlockedUntil) return
+                val layoutManager = recyclerView.layoutManager as LinearLayoutManager
+                if (layoutManager.findLastVisibleItemPosition() >= adapter.itemCount - LOAD_MORE_DISTANCE) {
+                    loadMore()
+                }
+            }
+        })
+
 
         loadData()
     }
 
     private fun loadData() {
-        swipeRefresh.isRefreshing = true
         val userId = com.example.madadgarapp.utils.SupabaseClient.AuthHelper.getCurrentUser()?.id
         if (userId == null) {
-            android.util.Log.e("NotificationsFragment", "loadData: No user ID found")
+            Log.e(TAG, "loadData: No user ID found")
             showEmpty()
             return
         }
-        android.util.Log.d("NotificationsFragment", "loadData: Loading notifications for user: $userId")
-        
-        lifecycleScope.launch {
-            try {
-                // First, let's try to get all notifications for debugging
-                val allResult = repo.getAllNotifications(userId)
-                if (allResult.isSuccess) {
-                    val allList = allResult.getOrNull() ?: emptyList()
-                    android.util.Log.d("NotificationsFragment", "loadData: Found ${allList.size} total notifications")
-                    allList.forEach { notification ->
-                        android.util.Log.d("NotificationsFragment", "loadData: Notification - ID: ${notification.id}, Title: ${notification.title}, IsRead: ${notification.isRead}, UserId: ${notification.userId}")
-                    }
-                } else {
-                    android.util.Log.e("NotificationsFragment", "loadData: Failed to get all notifications", allResult.exceptionOrNull())
-                }
-                
-                // Now get unread notifications
-                val result = repo.getUnread(userId)
-                swipeRefresh.isRefreshing = false
-                if (result.isSuccess) {
-                    val list = result.getOrNull() ?: emptyList()
-                    android.util.Log.d("NotificationsFragment", "loadData: Found ${list.size} unread notifications")
-                    list.forEach { notification ->
-                        android.util.Log.d("NotificationsFragment", "loadData: Unread - ID: ${notification.id}, Title: ${notification.title}")
-                    }
-                    adapter.setData(list)
-                    textEmpty.visibility = if (list.isEmpty()) View.VISIBLE else View.GONE
-                    
-                    if (list.isEmpty()) {
-                        android.util.Log.w("NotificationsFragment", "loadData: No unread notifications found, showing empty state")
-                    } else {
-                        android.util.Log.d("NotificationsFragment", "loadData: Found ${list.size} unread notifications")
-                    }
-                } else {
-                    android.util.Log.e("NotificationsFragment", "loadData: Failed to get unread notifications", result.exceptionOrNull())
+        swipeRefresh.isRefreshing = true
+        fetchPage(userId, null)
+    }
+
+    private fun loadMore() {
+        val cursor = nextCursor ?: return
+        val userId = com.example.madadgarapp.utils.SupabaseClient.AuthHelper.getCurrentUser()?.id ?: return
+        fetchPage(userId, cursor)
+    }
+
+    /**
+     * Fetch a page of unread notifications; a null cursor replaces the list with the first page
+     */
+    private fun fetchPage(userId: String, cursor: NotificationCursor?) {
+        // A refresh supersedes any page still loading
+        val request = ++pageRequest
+        loadingPage = true
+
+        viewLifecycleOwner.lifecycleScope.launch {
+            val result = repo.getNotificationsPage(userId, unreadOnly = true, cursor = cursor, pageSize = PAGE_SIZE)
+            if (request != pageRequest) return@launch
+            loadingPage = false
+            swipeRefresh.isRefreshing = false
+
+            val page = result.getOrNull()
+            if (page == null) {
+                Log.e(TAG, "Failed to load notifications", result.exceptionOrNull())
+                if (cursor == null) {
                     textEmpty.visibility = View.VISIBLE
-                    android.widget.Toast.makeText(requireContext(), "Failed to load notifications: ${result.exceptionOrNull()?.message}", android.widget.Toast.LENGTH_LONG).show()
+                    Toast.makeText(requireContext(), "Failed to load notifications: ${result.exceptionOrNull()?.message}", Toast.LENGTH_LONG).show()
+                } else {
+                    // Don't fire the same failing request on every scroll event
+                    loadMoreBlockedUntil = SystemClock.uptimeMillis() + LOAD_MORE_RETRY_DELAY_MS
                 }
-            } catch (e: Exception) {
-                android.util.Log.e("NotificationsFragment", "loadData: Exception in loadData", e)
-                swipeRefresh.isRefreshing = false
-                textEmpty.visibility = View.VISIBLE
-                android.widget.Toast.makeText(requireContext(), "Error loading notifications: ${e.message}", android.widget.Toast.LENGTH_LONG).show()
+                return@launch
             }
+
+            nextCursor = page.nextCursor
+            loadMoreBlockedUntil = 0L
+            if (cursor == null) {
+                adapter.setData(page.notifications)
+            } else {
+                adapter.appendData(page.notifications)
+            }
+            textEmpty.visibility = if (adapter.itemCount == 0) View.VISIBLE else View.GONE
         }
     }
 
     private fun onNotificationClicked(n: UserNotification) {
-        // Mark as read & maybe navigate to item
+        // Mark as read, then refresh so it drops out of the unread list
         lifecycleScope.launch {
             n.id?.let { repo.markRead(it) }
+            if (view != null) loadData()
         }
-        // For now just collapse & refresh list
-        loadData()
     }
     
     private fun handleDeleteNotification(notification: UserNotification) {
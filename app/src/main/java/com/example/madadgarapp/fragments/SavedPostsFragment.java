@@ -22,6 +22,7 @@ import com.example.madadgarapp.models.Item;
 import com.example.madadgarapp.models.SupabaseItem;
 import com.example.madadgarapp.repository.SupabaseItemBridge;
 import com.example.madadgarapp.utils.FavoriteManager;
+import com.example.madadgarapp.utils.RowViewPool;
 import com.example.madadgarapp.utils.TimeUtils;
 
 import java.util.ArrayList;
@@ -57,6 +58,7 @@ public class SavedPostsFragment extends Fragment {
         layoutEmptyFavorites = view.findViewById(R.id.layout_empty_favorites);
 
         rvSavedPosts.setLayoutManager(new LinearLayoutManager(getContext()));
+        RowViewPool.attach(rvSavedPosts, requireActivity());
         itemAdapter = new ItemAdapter(requireContext(), item -> {
             Intent intent = new Intent(getContext(), ItemDetailActivity.class);
             intent.putExtra(ItemDetailActivity.EXTRA_ITEM, item);
@@ -0,0 +1,109 @@
+package com.example.madadgarapp.repository
+
+import android.util.Log
+import com.example.madadgarapp.utils.SupabaseClient
+import io.github.jan.supabase.postgrest.from
+import io.github.jan.supabase.postgrest.postgrest
+import io.github.jan.supabase.postgrest.query.Order
+import io.github.jan.supabase.postgrest.rpc
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+
+/**
+ * A local favourite change to push to the server
+ */
+@Serializable
+data class FavoriteChange(
+    @SerialName("item_id")
+    val itemId: String,
+    @SerialName("is_favorite")
+    val isFavorite: Boolean,
+    @SerialName("changed_at")
+    val changedAt: String
+)
+
+@Serializable
+data class UpsertFavoritesParams(
+    val changes: List<FavoriteChange>
+)
+
+/**
+ * A user's favourite state for one item as stored on the server
+ */
+@Serializable
+data class FavoriteRow(
+    @SerialName("item_id")
+    val itemId: String,
+    @SerialName("is_favorite")
+    val isFavorite: Boolean,
+    @SerialName("changed_at")
+    val changedAt: String,
+    @SerialName("synced_at")
+    val syncedAt: String
+)
+
+/**
+ * Repository for the signed-in user's synced favourites
+ */
+class FavoritesRepository {
+
+    companion object {
+        private const val TAG = "FavoritesRepository"
+        private const val FAVORITES_TABLE = "user_favorites"
+        private const val UPSERT_FAVORITES_RPC = "upsert_favorites"
+    }
+
+    /**
+     * Push a batch of changes in one request. The server keeps whichever change is newer.
+     */
+    suspend fun pushChanges(changes: List<FavoriteChange>): Result<Unit> {
+        return withContext(Dispatchers.IO) {
+            try {
+                SupabaseClient.client.postgrest
+                    .rpc(UPSERT_FAVORITES_RPC, UpsertFavoritesParams(changes))
+
+                Log.d(TAG, "Pushed ${changes.size} favourite changes")
+                Result.success(Unit)
+
+            } catch (e: Exception) {
+                Log.e(TAG, "Error pushing favourite changes: ${e.message}", e)
+                Result.failure(e)
+            }
+        }
+    }
+
+    /**
+     * Get the user's rows that changed on the server after [since], oldest first
+     *
+     * @param since Only rows with a later synced_at are returned, or null for everything.
+     * Callers start a little before the last row seen, since rows can commit out of order.
+     */
+    suspend fun getChangesSince(userId: String, since: String?, limit: Int): Result<List<FavoriteRow>> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val rows = SupabaseClient.client
+                    .from(FAVORITES_TABLE)
+                    .select {
+                        filter {
+                            eq("user_id", userId)
+                            if (since != null) {
+                                gt("synced_at", since)
+                            }
+                        }
+                        order("synced_at", Order.ASCENDING)
+                        limit(limit.toLong())
+                    }
+                    .decodeList<FavoriteRow>()
+
+                Log.d(TAG, "Fetched ${rows.size} favourite changes since $since")
+                Result.success(rows)
+
+            } catch (e: Exception) {
+                Log.e(TAG, "Error fetching favourite changes: ${e.message}", e)
+                Result.failure(e)
+            }
+        }
+    }
+}
@@ -7,8 +7,11 @@ import com.example.madadgarapp.models.NewSupabaseItem
 import com.example.madadgarapp.models.SupabaseItem
 import com.example.madadgarapp.utils.SupabaseClient
 import io.github.jan.supabase.postgrest.from
+import io.github.jan.supabase.postgrest.postgrest
 import io.github.jan.supabase.postgrest.query.Columns
+import io.github.jan.supabase.postgrest.query.Order
 import io.github.jan.supabase.postgrest.query.filter.PostgrestFilterBuilder
+import io.github.jan.supabase.postgrest.rpc
 import io.github.jan.supabase.storage.storage
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
@@ -16,6 +19,7 @@ import kotlinx.serialization.SerialName
 import kotlinx.serialization.Serializable
 import java.io.ByteArrayOutputStream
 import java.io.InputStream
+import java.time.Instant
 import java.util.UUID
 
 /**
@@ -27,6 +31,79 @@ data class ItemDeleteUpdate(
     val isActive: Boolean
 )
 
+/**
+ * Data class for reading back only the ids touched by a bulk update
+ */
+@Serializable
+data class ItemIdRow(
+    val id: String
+)
+
+/**
+ * Data class for reading back only an item's expiry timestamp
+ */
+@Serializable
+data class ItemExpiryRow(
+    @SerialName("expires_at")
+    val expiresAt: String? = null
+)
+
+/**
+ * Parameters for the search_items RPC (see supabase_migration_items_search.sql)
+ */
+@Serializable
+data class ItemSearchParams(
+    @SerialName("search_query")
+    val searchQuery: String,
+    @SerialName("page_size")
+    val pageSize: Int,
+    @SerialName("cursor_rank")
+    val cursorRank: Float?,
+    @SerialName("cursor_created_at")
+    val cursorCreatedAt: String?,
+    @SerialName("cursor_id")
+    val cursorId: String?
+)
+
+/**
+ * One ranked row returned by the search_items RPC
+ */
+@Serializable
+data class ItemSearchRow(
+    val item: SupabaseItem,
+    val rank: Float
+)
+
+/**
+ * Position after the last row of a search page, passed back to fetch the next one
+ */
+data class ItemSearchCursor(
+    val rank: Float,
+    val createdAt: String?,
+    val id: String?
+)
+
+/**
+ * A page of search results, best match first
+ */
+data class ItemSearchPage(
+    val items: List<SupabaseItem>,
+    val nextCursor: ItemSearchCursor?
+)
+
+/**
+ * Number of active items in one (main, sub) category, from the item_category_counts RPC
+ */
+@Serializable
+data class CategoryCountRow(
+    @SerialName("main_category")
+    val mainCategory: String,
+    @SerialName("sub_category")
+    val subCategory: String,
+    @SerialName("item_count")
+    val itemCount: Int
+)
+
 /**
  * Repository class for handling item operations with Supabase
  * This class manages both database operations and file storage
@@ -36,6 +113,9 @@ class ItemRepository {
     companion object {
         private const val TAG = "ItemRepository"
         private const val ITEMS_TABLE = "items"
+        private const val FOOD_CATEGORY = "Food"
+        private const val SEARCH_ITEMS_RPC = "search_items"
+        private const val CATEGORY_COUNTS_RPC = "item_category_counts"
         private const val IMAGES_BUCKET = "item-images"
         private const val VIDEOS_BUCKET = "item-videos"
     }
@@ -264,6 +344,74 @@ class ItemRepository {
         }
     }
     
+    /**
+     * Full-text search over all active items on the server.
+     * Every query word is matched as a prefix against titles and descriptions, so partial
+     * words work for typeahead. Results are ranked server-side and paged with a keyset
+     * cursor, which keeps deep pages as cheap as the first one.
+     * 
+     * @param query Free text query
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of items per page
+     * @return The page of items, with a cursor for the next page if there may be more
+     */
+    suspend fun searchItems(
+        query: String,
+        cursor: ItemSearchCursor? = null,
+        pageSize: Int = 20
+    ): Result<ItemSearchPage> {
+        return withContext(Dispatchers.IO) {
+            try {
+                Log.d(TAG, "Searching items for '$query' (cursor: $cursor, pageSize: $pageSize)")
+                
+                val params = ItemSearchParams(
+                    searchQuery = query,
+                    pageSize = pageSize,
+                    cursorRank = cursor?.rank,
+                    cursorCreatedAt = cursor?.createdAt,
+                    cursorId = cursor?.id
+                )
+                val rows = SupabaseClient.client.postgrest
+                    .rpc(SEARCH_ITEMS_RPC, params)
+                    .decodeList<ItemSearchRow>()
+                
+                // A short page means the results are exhausted
+                val nextCursor = rows.lastOrNull()
+                    ?.takeIf { rows.size >= pageSize }
+                    ?.let { ItemSearchCursor(it.rank, it.item.createdAt, it.item.id) }
+                
+                Log.d(TAG, "Search for '$query' returned ${rows.size} items")
+                Result.success(ItemSearchPage(rows.map { it.item }, nextCursor))
+                
+            } catch (e: Exception) {
+                Log.e(TAG, "Error searching items: ${e.message}", e)
+                Result.failure(e)
+            }
+        }
+    }
+    
+    /**
+     * Count active items per (main, sub) category with one grouped query on the server
+     * 
+     * @return One row per category that has at least one active item
+     */
+    suspend fun getCategoryCounts(): Result<List<CategoryCountRow>> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val rows = SupabaseClient.client.postgrest
+                    .rpc(CATEGORY_COUNTS_RPC)
+                    .decodeList<CategoryCountRow>()
+                
+                Log.d(TAG, "Fetched counts for ${rows.size} categories")
+                Result.success(rows)
+                
+            } catch (e: Exception) {
+                Log.e(TAG, "Error fetching category counts: ${e.message}", e)
+                Result.failure(e)
+            }
+        }
+    }
+    
     /**
      * Get active items within a bounding box (for location-based filtering)
      * 
@@ -371,6 +519,77 @@ private suspend fun deleteItemInternal(itemId: String, userIdFilter: String?): R
         }
     }
     
+    /**
+     * Mark every expired, still active Food item as inactive in a single request.
+     * The filtered update runs server-side and returns only the affected ids, so
+     * cleanup is one round trip no matter how large the expired backlog is.
+     * 
+     * @param now Cut-off instant; items with expires_at before it are expired
+     * @return IDs of the items that were deactivated
+     */
+    suspend fun expireFoodItems(now: Instant = Instant.now()): Result<List<String>> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val cutoff = now.toString()
+                Log.d(TAG, "Expiring food items with expires_at < $cutoff")
+                
+                val expiredIds = SupabaseClient.client
+                    .from(ITEMS_TABLE)
+                    .update(ItemDeleteUpdate(isActive = false)) {
+                        select(Columns.list("id"))
+                        filter {
+                            eq("main_category", FOOD_CATEGORY)
+                            eq("is_active", true)
+                            lt("expires_at", cutoff)
+                        }
+                    }
+                    .decodeList<ItemIdRow>()
+                    .map { it.id }
+                
+                Log.d(TAG, "Expired ${expiredIds.size} food items")
+                Result.success(expiredIds)
+                
+            } catch (e: Exception) {
+                Log.e(TAG, "Error expiring food items: ${e.message}", e)
+                Result.failure(e)
+            }
+        }
+    }
+    
+    /**
+     * Get the earliest future expiry among active Food items
+     * 
+     * @param now Only expiries after this instant are considered
+     * @return Raw expires_at timestamp of the next item to expire, or null if none
+     */
+    suspend fun getNextFoodExpiry(now: Instant = Instant.now()): Result<String?> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val nextExpiry = SupabaseClient.client
+                    .from(ITEMS_TABLE)
+                    .select(Columns.list("expires_at")) {
+                        filter {
+                            eq("main_category", FOOD_CATEGORY)
+                            eq("is_active", true)
+                            gt("expires_at", now.toString())
+                        }
+                        order("expires_at", Order.ASCENDING)
+                        limit(1)
+                    }
+                    .decodeList<ItemExpiryRow>()
+                    .firstOrNull()
+                    ?.expiresAt
+                
+                Log.d(TAG, "Next food expiry: $nextExpiry")
+                Result.success(nextExpiry)
+                
+            } catch (e: Exception) {
+                Log.e(TAG, "Error fetching next food expiry: ${e.message}", e)
+                Result.failure(e)
+            }
+        }
+    }
+    
     /**
      * Helper function to convert URI to ByteArray
      */
@@ -9,6 +9,9 @@ import com.example.madadgarapp.models.DeviceTokenDeactivate
 import com.example.madadgarapp.models.NotificationReadUpdate
 import com.example.madadgarapp.utils.SupabaseClient
 import io.github.jan.supabase.postgrest.from
+import io.github.jan.supabase.postgrest.query.Columns
+import io.github.jan.supabase.postgrest.query.Count
+import io.github.jan.supabase.postgrest.query.Order
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 import kotlinx.serialization.SerialName
@@ -27,6 +30,22 @@ data class OwnerIdOnly(@SerialName("owner_id") val ownerId: String)
 @Serializable
 data class UserIdOnly(@SerialName("id") val id: String)
 
+/**
+ * Position after the last row of a notifications page, passed back to fetch the next one
+ */
+data class NotificationCursor(
+    val createdAt: String,
+    val id: Int
+)
+
+/**
+ * A page of notifications, newest first
+ */
+data class NotificationPage(
+    val notifications: List<UserNotification>,
+    val nextCursor: NotificationCursor?
+)
+
 /**
  * Repository for interacting with notification-related database tables.
  */
@@ -37,67 +56,69 @@ class NotificationRepository @Inject constructor() {
         private const val TAG = "NotificationRepository"
         private const val NOTIFICATIONS_TABLE = "user_notifications"
         private const val DEVICE_TOKENS_TABLE = "user_device_tokens"
+        private const val DEFAULT_PAGE_SIZE = 30
     }
 
     /**
-     * Fetch unread notifications for current user (sorted newest first)
+     * Fetch one page of a user's notifications, newest first.
+     *
+     * Filtering, ordering and paging happen in the database, so only the user's own rows
+     * are sent and the (user_id, is_read, created_at) index serves the query.
+     *
+     * @param unreadOnly Only return notifications that have not been read
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of notifications per page
+     * @return The page, with a cursor for the next page if there may be more
      */
-    suspend fun getUnread(userId: String): Result<List<UserNotification>> =
+    suspend fun getNotificationsPage(
+        userId: String,
+        unreadOnly: Boolean = false,
+        cursor: NotificationCursor? = null,
+        pageSize: Int = DEFAULT_PAGE_SIZE
+    ): Result<NotificationPage> =
         withContext(Dispatchers.IO) {
             try {
-                Log.d(TAG, "Fetching unread notifications for $userId")
-                val allNotifications = SupabaseClient.client
+                Log.d(TAG, "Fetching notifications for $userId (unreadOnly: $unreadOnly, cursor: $cursor)")
+                val list = SupabaseClient.client
                     .from(NOTIFICATIONS_TABLE)
-                    .select()
+                    .select {
+                        filter {
+                            eq("user_id", userId)
+                            if (unreadOnly) {
+                                eq("is_read", false)
+                            }
+                            // Rows strictly after the cursor; id breaks ties between equal timestamps
+                            if (cursor != null) {
+                                or {
+                                    lt("created_at", cursor.createdAt)
+                                    and {
+                                        eq("created_at", cursor.createdAt)
+                                        lt("id", cursor.id)
+                                    }
+                                }
+                            }
+                        }
+                        order("created_at", Order.DESCENDING)
+                        order("id", Order.DESCENDING)
+                        limit(pageSize.toLong())
+                    }
                     .decodeList<UserNotification>()
-                
-                Log.d(TAG, "Retrieved ${allNotifications.size} total notifications from database")
-                allNotifications.forEach { notification ->
-                    Log.d(TAG, "Raw notification: ID=${notification.id}, UserId=${notification.userId}, Title=${notification.title}, IsRead=${notification.isRead}, CreatedAt=${notification.createdAt}")
+
+                // A short page means there are no more notifications
+                val last = list.lastOrNull()
+                val nextCursor = if (list.size >= pageSize && last?.createdAt != null && last.id != null) {
+                    NotificationCursor(last.createdAt, last.id)
+                } else {
+                    null
                 }
-                
-                val filteredByUser = allNotifications.filter { it.userId == userId }
-                Log.d(TAG, "Filtered to ${filteredByUser.size} notifications for user $userId")
-                
-                val unreadForUser = filteredByUser.filter { !it.isRead }
-                Log.d(TAG, "Found ${unreadForUser.size} unread notifications for user $userId")
-                
-                val list = unreadForUser.sortedByDescending { it.createdAt }
-                Log.d(TAG, "Returning ${list.size} sorted unread notifications")
-                
-                Result.success(list)
+                Log.d(TAG, "Fetched ${list.size} notifications for $userId")
+                Result.success(NotificationPage(list, nextCursor))
             } catch (e: Exception) {
                 Log.e(TAG, "Error fetching notifications", e)
                 Result.failure(e)
             }
         }
 
-    /**
-     * Fetch all notifications for current user (sorted newest first)
-     */
-    suspend fun getAllNotifications(userId: String): Result<List<UserNotification>> =
-        withContext(Dispatchers.IO) {
-            try {
-                Log.d(TAG, "Fetching all notifications for $userId")
-                val allNotifications = SupabaseClient.client
-                    .from(NOTIFICATIONS_TABLE)
-                    .select()
-                    .decodeList<UserNotification>()
-                
-                Log.d(TAG, "getAllNotifications: Retrieved ${allNotifications.size} total notifications from database")
-                
-                val list = allNotifications
-                    .filter { it.userId == userId }
-                    .sortedByDescending { it.createdAt }
-                
-                Log.d(TAG, "getAllNotifications: Returning ${list.size} notifications for user $userId")
-                Result.success(list)
-            } catch (e: Exception) {
-                Log.e(TAG, "Error fetching all notifications", e)
-                Result.failure(e)
-            }
-        }
-
     /**
      * Delete a single notification
      */
@@ -126,21 +147,13 @@ suspend fun deleteNotification(notificationId: Int): Result<Unit> =
         withContext(Dispatchers.IO) {
             try {
                 Log.d(TAG, "Marking notification as read: $notificationId")
-                
-                // Get all notifications and find the one to update
-                val allNotifications = SupabaseClient.client
+                SupabaseClient.client
                     .from(NOTIFICATIONS_TABLE)
-                    .select()
-                    .decodeList<UserNotification>()
-                
-                // Find the notification to update
-                val notification = allNotifications.find { it.id == notificationId }
-                if (notification != null) {
-                    // For now, just log the action
-                    // TODO: Implement actual database update when server-side filtering is working
-                    Log.d(TAG, "Found notification to mark as read: ${notification.title}")
-                }
-                
+                    .update(NotificationReadUpdate()) {
+                        filter {
+                            eq("id", notificationId)
+                        }
+                    }
                 Result.success(Unit)
             } catch (e: Exception) {
                 Log.e(TAG, "Error marking notification read", e)
@@ -308,19 +321,24 @@ suspend fun deleteNotification(notificationId: Int): Result<Unit> =
         }
 
     /**
-     * Get unread notification count for user
+     * Get unread notification count for user, counted by the database
      */
     suspend fun getUnreadCount(userId: String): Result<Int> =
         withContext(Dispatchers.IO) {
             try {
                 Log.d(TAG, "Getting unread count for user: $userId")
-                val unreadResult = getUnread(userId)
-                if (unreadResult.isSuccess) {
-                    val count = unreadResult.getOrNull()?.size ?: 0
-                    Result.success(count)
-                } else {
-                    Result.failure(unreadResult.exceptionOrNull() ?: Exception("Unknown error"))
-                }
+                val count = SupabaseClient.client
+                    .from(NOTIFICATIONS_TABLE)
+                    .select(Columns.list("id")) {
+                        count(Count.EXACT)
+                        filter {
+                            eq("user_id", userId)
+                            eq("is_read", false)
+                        }
+                        limit(1)
+                    }
+                    .countOrNull() ?: 0L
+                Result.success(count.toInt())
             } catch (e: Exception) {
                 Log.e(TAG, "Error getting unread count", e)
                 Result.failure(e)
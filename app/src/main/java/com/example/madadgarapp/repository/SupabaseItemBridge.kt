@@ -27,6 +27,9 @@ class SupabaseItemBridge : CoroutineScope {
     override val coroutineContext: CoroutineContext = Dispatchers.Main + job
     
     private val repository = ItemRepository()
+    
+    // Only the latest search may deliver results
+    private var searchJob: Job? = null
     private val notificationService = NotificationService(com.example.madadgarapp.repository.NotificationRepository())
     
     /**
@@ -344,6 +347,92 @@ class SupabaseItemBridge : CoroutineScope {
         }
     }
     
+    /**
+     * Search all active items on the server, best match first.
+     * Starting a new search cancels the one still in flight, so a superseded query never
+     * decodes its response or reaches the callback.
+     * 
+     * @param query Free text query
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of items per page
+     * @param callback Callback for success/error handling
+     */
+    fun searchItems(
+        query: String,
+        cursor: ItemSearchCursor?,
+        pageSize: Int,
+        callback: RepositoryCallback<ItemSearchPage>
+    ) {
+        Log.d(TAG, "Searching items in Supabase for '$query'")
+        
+        searchJob?.cancel()
+        searchJob = launch {
+            try {
+                val result = withContext(Dispatchers.IO) {
+                    repository.searchItems(query, cursor, pageSize)
+                }
+                
+                // Cancelled while the request was running
+                if (!isActive) {
+                    return@launch
+                }
+                
+                if (result.isSuccess) {
+                    val page = result.getOrNull() ?: ItemSearchPage(emptyList(), null)
+                    Log.d(TAG, "Search for '$query' returned ${page.items.size} items")
+                    callback.onSuccess(page)
+                } else {
+                    val error = result.exceptionOrNull()?.message ?: "Failed to search items"
+                    Log.e(TAG, "Failed to search items: $error")
+                    callback.onError(error)
+                }
+                
+            } catch (e: CancellationException) {
+                Log.d(TAG, "Search for '$query' superseded")
+            } catch (e: Exception) {
+                Log.e(TAG, "Exception searching items", e)
+                callback.onError(e.message ?: "Exception searching items")
+            }
+        }
+    }
+    
+    /**
+     * Cancel the search in flight, if any
+     */
+    fun cancelSearch() {
+        searchJob?.cancel()
+        searchJob = null
+    }
+    
+    /**
+     * Get the number of active items per (main, sub) category from Supabase
+     */
+    fun getCategoryCounts(callback: RepositoryCallback<List<CategoryCountRow>>) {
+        Log.d(TAG, "Fetching category counts from Supabase")
+        
+        launch {
+            try {
+                val result = withContext(Dispatchers.IO) {
+                    repository.getCategoryCounts()
+                }
+                
+                if (result.isSuccess) {
+                    val rows = result.getOrNull() ?: emptyList()
+                    Log.d(TAG, "Fetched counts for ${rows.size} categories from Supabase")
+                    callback.onSuccess(rows)
+                } else {
+                    val error = result.exceptionOrNull()?.message ?: "Failed to fetch category counts"
+                    Log.e(TAG, "Failed to fetch category counts: $error")
+                    callback.onError(error)
+                }
+                
+            } catch (e: Exception) {
+                Log.e(TAG, "Exception fetching category counts", e)
+                callback.onError(e.message ?: "Exception fetching category counts")
+            }
+        }
+    }
+    
     /**
      * Get active items within a bounding box (for location-based filtering)
      */
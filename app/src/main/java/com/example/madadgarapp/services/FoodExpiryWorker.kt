@@ -0,0 +1,48 @@
+package com.example.madadgarapp.services
+
+import android.content.Context
+import android.util.Log
+import androidx.work.CoroutineWorker
+import androidx.work.WorkerParameters
+import com.example.madadgarapp.repository.ItemRepository
+import com.example.madadgarapp.utils.FoodExpiryScheduler
+import com.example.madadgarapp.utils.TimeUtils
+
+/**
+ * One-shot worker that deactivates expired Food items.
+ *
+ * It is armed by [FoodExpiryScheduler] for the next known expiry instant. After the
+ * bulk expiry it asks the server for the next upcoming expiry and hands control back
+ * to the scheduler so the following run is armed for exactly that moment.
+ */
+class FoodExpiryWorker(
+    context: Context,
+    params: WorkerParameters
+) : CoroutineWorker(context, params) {
+
+    companion object {
+        private const val TAG = "FoodExpiryWorker"
+    }
+
+    private val repository = ItemRepository()
+
+    override suspend fun doWork(): Result {
+        val runAt = System.currentTimeMillis()
+        Log.d(TAG, "Running food expiry cleanup")
+
+        val expireResult = repository.expireFoodItems()
+        if (expireResult.isFailure) {
+            Log.e(TAG, "Food expiry cleanup failed, will retry", expireResult.exceptionOrNull())
+            return Result.retry()
+        }
+        Log.d(TAG, "Deactivated ${expireResult.getOrNull()?.size ?: 0} expired food items")
+
+        // Learn the next deadline from the server so expiries posted on other devices are covered
+        val nextExpiry = repository.getNextFoodExpiry().getOrNull()
+            ?.let { TimeUtils.parseTimestamp(it) }
+            ?: 0L
+
+        FoodExpiryScheduler.onExpiryRunFinished(applicationContext, runAt, nextExpiry)
+        return Result.success()
+    }
+}
@@ -0,0 +1,522 @@
+package com.example.madadgarapp.ui;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.media.ExifInterface;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Zoomable view for large images that never decodes the whole image at full resolution.
+ *
+ * A base layer sampled down to roughly the view's size is always drawn; when zoomed in past
+ * it, the visible part is decoded in tiles at the sample size matching the zoom, using
+ * {@link BitmapRegionDecoder} on a background pool. Decoded tiles are kept in an LRU bounded
+ * in bytes and sized from the view, so memory use doesn't grow with the image's size.
+ */
+public class TiledImageView extends View {
+
+    private static final String TAG = "TiledImageView";
+
+    // Edge of a decoded tile in bitmap pixels
+    private static final int TILE_SIZE = 512;
+    // Tiles are decoded as ARGB_8888
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int MIN_TILE_CACHE_BYTES = 24 * 1024 * 1024;
+    // Furthest zoom, in screen pixels per image pixel
+    private static final float MAX_PIXEL_SCALE = 3f;
+    private static final float DOUBLE_TAP_ZOOM = 3f;
+
+    private static final ExecutorService decodePool = Executors.newFixedThreadPool(2);
+
+    /**
+     * Reports when the image has been opened; called on the main thread
+     */
+    public interface OnImageLoadListener {
+        void onImageReady();
+
+        void onImageLoadFailed(Exception e);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Matrix drawMatrix = new Matrix();
+    private final Matrix inverseMatrix = new Matrix();
+    private final RectF visibleRect = new RectF();
+    // Reused by onDraw so drawing allocates nothing
+    private final Rect imageBounds = new Rect();
+    private final Rect tileRect = new Rect();
+    private final Rect rawRect = new Rect();
+    private final RectF dstRect = new RectF();
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+
+    private final LruCache<Long, Bitmap> tileCache = new LruCache<Long, Bitmap>(MIN_TILE_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(@NonNull Long key, @NonNull Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+    private final Set<Long> pendingTiles = ConcurrentHashMap.newKeySet();
+    // Published before any of its tiles is requested, and never modified afterwards
+    private volatile Set<Long> wantedTiles = Collections.emptySet();
+
+    // Visible tile range of the last frame and its keys, row by row; rebuilt only when it changes
+    private int rangeSample;
+    private int rangeFirstCol;
+    private int rangeLastCol;
+    private int rangeFirstRow;
+    private int rangeLastRow;
+    private Long[] rangeKeys = new Long[0];
+
+    @Nullable
+    private OnImageLoadListener loadListener;
+
+    // Everything below belongs to the image currently shown; generation changes with it
+    private int generation;
+    @Nullable
+    private BitmapRegionDecoder decoder;
+    @Nullable
+    private Bitmap baseLayer;
+    private int baseSample;
+    private int rawWidth;
+    private int rawHeight;
+    private int orientation;
+
+    // Image size after applying the EXIF rotation
+    private int imageWidth;
+    private int imageHeight;
+
+    // Screen pixels per image pixel, and image origin in view coordinates
+    private float scale;
+    private float minScale;
+    private float translateX;
+    private float translateY;
+
+    public TiledImageView(Context context) {
+        this(context, null);
+    }
+
+    public TiledImageView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        scaleDetector = new ScaleGestureDetector(context, new ScaleListener());
+        gestureDetector = new GestureDetector(context, new GestureListener());
+    }
+
+    public void setOnImageLoadListener(@Nullable OnImageLoadListener listener) {
+        this.loadListener = listener;
+    }
+
+    /**
+     * Show an image file. The file is opened and the base layer decoded in the background.
+     */
+    public void setImageFile(@NonNull File file) {
+        release();
+        final int loadGeneration = generation;
+        // Posted so the view has been laid out and its size is known
+        post(() -> {
+            int viewWidth = getWidth() > 0 ? getWidth() : getResources().getDisplayMetrics().widthPixels;
+            int viewHeight = getHeight() > 0 ? getHeight() : getResources().getDisplayMetrics().heightPixels;
+            decodePool.execute(() -> openImage(file, loadGeneration, viewWidth, viewHeight));
+        });
+    }
+
+    private void openImage(File file, int loadGeneration, int viewWidth, int viewHeight) {
+        try {
+            BitmapRegionDecoder newDecoder = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                    ? BitmapRegionDecoder.newInstance(file.getPath())
+                    : BitmapRegionDecoder.newInstance(file.getPath(), false);
+            int width = newDecoder.getWidth();
+            int height = newDecoder.getHeight();
+            int rotation = readRotation(file);
+            boolean swapped = rotation == 90 || rotation == 270;
+
+            // Sample the base layer down to about the view's size
+            int orientedWidth = swapped ? height : width;
+            int orientedHeight = swapped ? width : height;
+            float fit = Math.min((float) viewWidth / orientedWidth, (float) viewHeight / orientedHeight);
+            int sample = sampleSizeFor(fit);
+            Bitmap base = newDecoder.decodeRegion(new Rect(0, 0, width, height), decodeOptions(sample));
+
+            mainHandler.post(() -> {
+                if (loadGeneration != generation) {
+                    newDecoder.recycle();
+                    return;
+                }
+                decoder = newDecoder;
+                baseLayer = base;
+                baseSample = sample;
+                rawWidth = width;
+                rawHeight = height;
+                orientation = rotation;
+                imageWidth = orientedWidth;
+                imageHeight = orientedHeight;
+                imageBounds.set(0, 0, orientedWidth, orientedHeight);
+                resetZoom();
+                if (loadListener != null) {
+                    loadListener.onImageReady();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Failed to open image " + file, e);
+            mainHandler.post(() -> {
+                if (loadGeneration == generation && loadListener != null) {
+                    loadListener.onImageLoadFailed(e);
+                }
+            });
+        }
+    }
+
+    private static int readRotation(File file) {
+        try {
+            int exif = new ExifInterface(file.getPath()).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (exif) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Largest power-of-two sample size that still gives at least one bitmap pixel per
+     * screen pixel at the given scale
+     */
+    private static int sampleSizeFor(float pixelScale) {
+        int sample = 1;
+        if (pixelScale <= 0f) {
+            return sample;
+        }
+        while (sample * 2 * pixelScale <= 1f) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Drop the current image, its decoder and its tiles
+     */
+    public void release() {
+        generation++;
+        wantedTiles = Collections.emptySet();
+        rangeSample = 0;
+        pendingTiles.clear();
+        tileCache.evictAll();
+        if (decoder != null) {
+            // Decodes in flight see the decoder recycled and give up
+            decoder.recycle();
+            decoder = null;
+        }
+        baseLayer = null;
+        invalidate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        release();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        sizeTileCache(w, h);
+        if (baseLayer != null) {
+            resetZoom();
+        }
+    }
+
+    /**
+     * Fit the tile cache to the view. Tiles are decoded with up to two bitmap pixels per
+     * screen pixel each way, so a screen's worth of tiles can take four times the screen's
+     * pixels, plus the partly visible tiles at the edges. A quarter of the app's heap is the
+     * ceiling.
+     */
+    private void sizeTileCache(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        long cols = (2L * width + TILE_SIZE - 1) / TILE_SIZE + 1;
+        long rows = (2L * height + TILE_SIZE - 1) / TILE_SIZE + 1;
+        long needed = cols * rows * TILE_SIZE * TILE_SIZE * BYTES_PER_PIXEL;
+        long ceiling = Long.MAX_VALUE;
+        ActivityManager activityManager = (ActivityManager) getContext().getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager != null) {
+            ceiling = activityManager.getMemoryClass() * 1024L * 1024L / 4;
+        }
+        long bytes = Math.min(ceiling, Math.max(MIN_TILE_CACHE_BYTES, needed));
+        tileCache.resize((int) Math.min(bytes, Integer.MAX_VALUE));
+    }
+
+    private void resetZoom() {
+        minScale = Math.min((float) getWidth() / imageWidth, (float) getHeight() / imageHeight);
+        scale = minScale;
+        clampTranslation();
+        invalidate();
+    }
+
+    private float maxScale() {
+        return Math.max(MAX_PIXEL_SCALE, minScale);
+    }
+
+    private void zoomTo(float newScale, float focusX, float focusY) {
+        newScale = Math.max(minScale, Math.min(newScale, maxScale()));
+        // Keep the image point under the focus where it is
+        translateX = focusX - (focusX - translateX) * newScale / scale;
+        translateY = focusY - (focusY - translateY) * newScale / scale;
+        scale = newScale;
+        clampTranslation();
+        invalidate();
+    }
+
+    private void clampTranslation() {
+        float scaledWidth = imageWidth * scale;
+        float scaledHeight = imageHeight * scale;
+        translateX = scaledWidth <= getWidth()
+                ? (getWidth() - scaledWidth) / 2f
+                : Math.max(getWidth() - scaledWidth, Math.min(translateX, 0f));
+        translateY = scaledHeight <= getHeight()
+                ? (getHeight() - scaledHeight) / 2f
+                : Math.max(getHeight() - scaledHeight, Math.min(translateY, 0f));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (baseLayer == null) {
+            return;
+        }
+        drawMatrix.setScale(scale, scale);
+        drawMatrix.postTranslate(translateX, translateY);
+
+        drawRegion(canvas, baseLayer, imageBounds);
+
+        int sample = sampleSizeFor(scale);
+        if (sample >= baseSample) {
+            wantedTiles = Collections.emptySet();
+            rangeSample = 0;
+            return;
+        }
+
+        // Part of the image on screen, in image coordinates
+        drawMatrix.invert(inverseMatrix);
+        visibleRect.set(0, 0, getWidth(), getHeight());
+        inverseMatrix.mapRect(visibleRect);
+
+        int tileSpan = TILE_SIZE * sample;
+        int firstCol = Math.max(0, (int) (visibleRect.left / tileSpan));
+        int lastCol = Math.min((imageWidth - 1) / tileSpan, (int) (visibleRect.right / tileSpan));
+        int firstRow = Math.max(0, (int) (visibleRect.top / tileSpan));
+        int lastRow = Math.min((imageHeight - 1) / tileSpan, (int) (visibleRect.bottom / tileSpan));
+
+        if (sample != rangeSample || firstCol != rangeFirstCol || lastCol != rangeLastCol
+                || firstRow != rangeFirstRow || lastRow != rangeLastRow) {
+            setTileRange(sample, firstCol, lastCol, firstRow, lastRow);
+        }
+
+        int index = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Long key = rangeKeys[index++];
+                tileRect.set(col * tileSpan, row * tileSpan,
+                        Math.min((col + 1) * tileSpan, imageWidth),
+                        Math.min((row + 1) * tileSpan, imageHeight));
+                Bitmap tile = tileCache.get(key);
+                if (tile != null) {
+                    drawRegion(canvas, tile, tileRect);
+                } else {
+                    requestTile(key, tileRect, sample);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remember the visible tile range and publish its keys as the wanted tiles. This happens
+     * before any of them is requested, so a decode thread never sees a stale set.
+     */
+    private void setTileRange(int sample, int firstCol, int lastCol, int firstRow, int lastRow) {
+        rangeSample = sample;
+        rangeFirstCol = firstCol;
+        rangeLastCol = lastCol;
+        rangeFirstRow = firstRow;
+        rangeLastRow = lastRow;
+        Long[] keys = new Long[(lastCol - firstCol + 1) * (lastRow - firstRow + 1)];
+        Set<Long> wanted = new HashSet<>();
+        int index = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Long key = tileKey(sample, col, row);
+                keys[index++] = key;
+                wanted.add(key);
+            }
+        }
+        rangeKeys = keys;
+        wantedTiles = Collections.unmodifiableSet(wanted);
+    }
+
+    private static long tileKey(int sample, int col, int row) {
+        return ((long) sample << 48) | ((long) col << 24) | row;
+    }
+
+    /**
+     * Draw a bitmap decoded from the raw image so it covers {@code imageRect}, which is in
+     * rotated image coordinates
+     */
+    private void drawRegion(Canvas canvas, Bitmap bitmap, Rect imageRect) {
+        toRawRect(imageRect, rawRect);
+        canvas.save();
+        canvas.concat(drawMatrix);
+        canvas.translate(imageRect.exactCenterX(), imageRect.exactCenterY());
+        canvas.rotate(orientation);
+        dstRect.set(-rawRect.width() / 2f, -rawRect.height() / 2f, rawRect.width() / 2f, rawRect.height() / 2f);
+        canvas.drawBitmap(bitmap, null, dstRect, bitmapPaint);
+        canvas.restore();
+    }
+
+    /**
+     * Map a rectangle in rotated image coordinates back to the file's own pixel grid
+     */
+    private void toRawRect(Rect r, Rect out) {
+        switch (orientation) {
+            case 90:
+                out.set(r.top, rawHeight - r.right, r.bottom, rawHeight - r.left);
+                break;
+            case 180:
+                out.set(rawWidth - r.right, rawHeight - r.bottom, rawWidth - r.left, rawHeight - r.top);
+                break;
+            case 270:
+                out.set(rawWidth - r.bottom, r.left, rawWidth - r.top, r.right);
+                break;
+            default:
+                out.set(r);
+                break;
+        }
+    }
+
+    private void requestTile(Long key, Rect tileRect, int sample) {
+        BitmapRegionDecoder tileDecoder = decoder;
+        if (tileDecoder == null || !pendingTiles.add(key)) {
+            return;
+        }
+        final int tileGeneration = generation;
+        final Rect raw = new Rect();
+        toRawRect(tileRect, raw);
+        decodePool.execute(() -> {
+            Bitmap tile = null;
+            // Skip tiles scrolled or zoomed away from while they waited
+            if (wantedTiles.contains(key)) {
+                try {
+                    tile = tileDecoder.decodeRegion(raw, decodeOptions(sample));
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    // Decoder released, or the region fell outside the image
+                }
+            }
+            Bitmap decoded = tile;
+            mainHandler.post(() -> {
+                if (tileGeneration != generation) {
+                    return;
+                }
+                pendingTiles.remove(key);
+                if (decoded != null) {
+                    tileCache.put(key, decoded);
+                    invalidate();
+                } else if (wantedTiles.contains(key)) {
+                    // Skipped while away, but wanted again; the next draw requests it anew
+                    invalidate();
+                }
+            });
+        });
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (baseLayer == null) {
+            return super.onTouchEvent(event);
+        }
+        scaleDetector.onTouchEvent(event);
+        gestureDetector.onTouchEvent(event);
+        return true;
+    }
+
+    private class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            zoomTo(scale * detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+            return true;
+        }
+    }
+
+    private class GestureListener extends GestureDetector.SimpleOnGestureListener {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
+        }
+
+        @Override
+        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+            if (scaleDetector.isInProgress()) {
+                return false;
+            }
+            translateX -= distanceX;
+            translateY -= distanceY;
+            clampTranslation();
+            invalidate();
+            return true;
+        }
+
+        @Override
+        public boolean onDoubleTap(MotionEvent e) {
+            float target = scale > minScale * 1.01f ? minScale : minScale * DOUBLE_TAP_ZOOM;
+            zoomTo(target, e.getX(), e.getY());
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapConfirmed(MotionEvent e) {
+            return performClick();
+        }
+    }
+
+    private static BitmapFactory.Options decodeOptions(int sample) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sample;
+        return options;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.madadgarapp.utils
+
+import android.app.Activity
+import android.app.Application
+import android.content.Context
+import android.os.Bundle
+import android.util.Log
+import android.view.Choreographer
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.withTimeoutOrNull
+
+/**
+ * Runs the app's startup work without holding up the first frame.
+ *
+ * Each initializer is registered with a name, the names it depends on and a [Stage]. Nothing
+ * runs on the main thread: [Stage.BACKGROUND] work starts straight away and
+ * [Stage.AFTER_FIRST_FRAME] work waits until the first activity has drawn (or a timeout, for
+ * processes started without UI). Independent initializers run in parallel; an initializer
+ * whose dependency failed is skipped. Every run is recorded in [StartupTrace].
+ */
+object AppStartup {
+
+    private const val TAG = "AppStartup"
+
+    // Processes started by a push or a job never draw; deferred work runs after this instead
+    private const val FIRST_FRAME_TIMEOUT_MS = 5_000L
+
+    enum class Stage { BACKGROUND, AFTER_FIRST_FRAME }
+
+    private class Initializer(
+        val name: String,
+        val stage: Stage,
+        val dependsOn: List<String>,
+        val run: suspend (Context) -> Unit
+    ) {
+        // Completes with true if the initializer succeeded
+        val done = CompletableDeferred<Boolean>()
+    }
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val initializers = LinkedHashMap<String, Initializer>()
+    private val firstFrame = CompletableDeferred<Unit>()
+
+    /**
+     * Declare an initializer; call before [start]
+     */
+    fun register(
+        name: String,
+        stage: Stage,
+        dependsOn: List<String> = emptyList(),
+        run: suspend (Context) -> Unit
+    ) {
+        require(name !in initializers) { "Initializer $name registered twice" }
+        initializers[name] = Initializer(name, stage, dependsOn, run)
+    }
+
+    /**
+     * Start every registered initializer. Returns immediately.
+     */
+    fun start(application: Application) {
+        for (initializer in initializers.values) {
+            for (dependency in initializer.dependsOn) {
+                require(dependency in initializers) { "${initializer.name} depends on unknown $dependency" }
+            }
+        }
+        watchFirstFrame(application)
+        for (initializer in initializers.values) {
+            scope.launch { runInitializer(application, initializer) }
+        }
+    }
+
+    private suspend fun runInitializer(context: Context, initializer: Initializer) {
+        val dependenciesOk = initializer.dependsOn.all { initializers.getValue(it).done.await() }
+        if (initializer.stage == Stage.AFTER_FIRST_FRAME) {
+            withTimeoutOrNull(FIRST_FRAME_TIMEOUT_MS) { firstFrame.await() }
+        }
+
+        val startMs = StartupTrace.now()
+        if (!dependenciesOk) {
+            StartupTrace.record(initializer.name, startMs, StartupTrace.Status.SKIPPED)
+            initializer.done.complete(false)
+            return
+        }
+        val succeeded = try {
+            initializer.run(context)
+            true
+        } catch (e: Exception) {
+            Log.e(TAG, "Initializer ${initializer.name} failed", e)
+            false
+        }
+        StartupTrace.record(
+            initializer.name, startMs,
+            if (succeeded) StartupTrace.Status.SUCCEEDED else StartupTrace.Status.FAILED
+        )
+        initializer.done.complete(succeeded)
+    }
+
+    /**
+     * Run [callback] on the main thread once the named initializer has finished, whether or
+     * not it succeeded
+     */
+    @JvmStatic
+    fun whenFinished(name: String, callback: Runnable) {
+        val initializer = initializers[name]
+        if (initializer == null) {
+            callback.run()
+            return
+        }
+        scope.launch {
+            initializer.done.await()
+            withContext(Dispatchers.Main) { callback.run() }
+        }
+    }
+
+    private fun watchFirstFrame(application: Application) {
+        application.registerActivityLifecycleCallbacks(object : Application.ActivityLifecycleCallbacks {
+            override fun onActivityResumed(activity: Activity) {
+                application.unregisterActivityLifecycleCallbacks(this)
+                // The frame callback runs before that frame's draw; the posted message after it
+                Choreographer.getInstance().postFrameCallback {
+                    activity.window.decorView.post {
+                        StartupTrace.markFirstFrame()
+                        firstFrame.complete(Unit)
+                    }
+                }
+            }
+
+            override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) = Unit
+            override fun onActivityStarted(activity: Activity) = Unit
+            override fun onActivityPaused(activity: Activity) = Unit
+            override fun onActivityStopped(activity: Activity) = Unit
+            override fun onActivitySaveInstanceState(activity: Activity, outState: Bundle) = Unit
+            override fun onActivityDestroyed(activity: Activity) = Unit
+        })
+    }
+}
@@ -310,6 +310,9 @@ class AuthManager @Inject constructor(
     fun signOut() {
         viewModelScope.launch(exceptionHandler) {
             try {
+                // Send favourite toggles still waiting for their batch while the session is valid
+                FavoritesSync.pushBeforeSignOut()
+                
                 // Sign out from Supabase
                 val result = SupabaseClient.AuthHelper.signOut()
                 
@@ -317,6 +320,7 @@ class AuthManager @Inject constructor(
                     onSuccess = {
                         // Remove FCM token before signing out
                         fcmTokenManager.removeFCMToken()
+                        FavoritesSync.onSignedOut()
                         
                         _currentUser.value = null
                         _authState.value = AuthState.Unauthenticated
@@ -0,0 +1,154 @@
+package com.example.madadgarapp.utils;
+
+import android.util.Log;
+
+import com.example.madadgarapp.repository.CategoryCountRow;
+import com.example.madadgarapp.repository.SupabaseItemBridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-category item counts for the category filter.
+ *
+ * Counts are kept for every (main, sub) category and each main category, over the feed items
+ * that are unexpired and within the user's radius, so a category's count is what selecting
+ * it would show. The feed's filter engine computes them in the background and hands over the
+ * finished map, so the category dialog can show them instantly. Until the feed has loaded,
+ * grouped counts from the server stand in.
+ * Main thread only.
+ */
+public class CategoryFacetCounts {
+
+    private static final String TAG = "CategoryFacetCounts";
+
+    // Server counts only back the dialog before the feed loads, so refresh them sparingly
+    private static final long SERVER_REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000L;
+
+    public interface OnCountsChangedListener {
+        void onCountsChanged(CategoryFacetCounts counts);
+    }
+
+    private static CategoryFacetCounts instance;
+
+    // "Main" and "Main > Sub" keys -> number of cached items
+    private Map<String, Integer> localCounts = Collections.emptyMap();
+    private Map<String, Integer> serverCounts;
+    private boolean localLoaded;
+    private long serverFetchedAt;
+    private boolean serverFetchInFlight;
+    private final List<OnCountsChangedListener> listeners = new ArrayList<>();
+
+    private CategoryFacetCounts() {
+    }
+
+    public static synchronized CategoryFacetCounts getInstance() {
+        if (instance == null) {
+            instance = new CategoryFacetCounts();
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the local counts, e.g. after the feed is refiltered.
+     * Listeners are only told when the counts actually changed.
+     *
+     * @param counts Item counts by "Main" and "Main > Sub" category; not modified afterwards
+     */
+    public void setLocalCounts(Map<String, Integer> counts) {
+        if (localLoaded && (counts == localCounts || counts.equals(localCounts))) {
+            return;
+        }
+        localCounts = counts;
+        localLoaded = true;
+        notifyListeners();
+    }
+
+    /**
+     * Whether any counts are available yet; before that, categories should not be hidden
+     */
+    public boolean isKnown() {
+        return localLoaded || serverCounts != null;
+    }
+
+    /**
+     * Number of items in a (main, sub) category
+     */
+    public int getCount(String mainCategory, String subCategory) {
+        return lookup(key(mainCategory, subCategory));
+    }
+
+    /**
+     * Number of items across all subcategories of a main category
+     */
+    public int getCount(String mainCategory) {
+        return lookup(mainCategory);
+    }
+
+    /**
+     * Fetch grouped counts from the server if they are missing or stale.
+     * They are only used until the feed cache has loaded.
+     */
+    public void refreshServerCounts() {
+        long now = System.currentTimeMillis();
+        if (localLoaded || serverFetchInFlight
+                || (serverCounts != null && now - serverFetchedAt < SERVER_REFRESH_INTERVAL_MILLIS)) {
+            return;
+        }
+        serverFetchInFlight = true;
+        SupabaseItemBridge bridge = new SupabaseItemBridge();
+        bridge.getCategoryCounts(new SupabaseItemBridge.RepositoryCallback<List<CategoryCountRow>>() {
+            @Override
+            public void onSuccess(List<CategoryCountRow> rows) {
+                Map<String, Integer> counts = new HashMap<>();
+                for (CategoryCountRow row : rows) {
+                    counts.merge(key(row.getMainCategory(), row.getSubCategory()), row.getItemCount(), Integer::sum);
+                    counts.merge(row.getMainCategory(), row.getItemCount(), Integer::sum);
+                }
+                serverCounts = counts;
+                serverFetchedAt = System.currentTimeMillis();
+                serverFetchInFlight = false;
+                bridge.cleanup();
+                if (!localLoaded) {
+                    notifyListeners();
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Could not fetch category counts: " + error);
+                serverFetchInFlight = false;
+                bridge.cleanup();
+            }
+        });
+    }
+
+    public void addListener(OnCountsChangedListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(OnCountsChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private int lookup(String key) {
+        Map<String, Integer> counts = localLoaded || serverCounts == null ? localCounts : serverCounts;
+        Integer count = counts.get(key);
+        return count != null ? count : 0;
+    }
+
+    private void notifyListeners() {
+        for (OnCountsChangedListener listener : new ArrayList<>(listeners)) {
+            listener.onCountsChanged(this);
+        }
+    }
+
+    private static String key(String mainCategory, String subCategory) {
+        return mainCategory + " > " + subCategory;
+    }
+}
@@ -2,21 +2,84 @@ package com.example.madadgarapp.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Helper class for managing a list of favourited item IDs using {@link SharedPreferences}.
  *
- * Keep it simple for demo purposes – favourited items are stored locally on the current device.
- * Later, this can be swapped out for a remote solution (e.g. Supabase profile column) if the
- * project needs multi-device synchronisation.
+ * The IDs are read from preferences once and then served from an in-memory set, so lookups
+ * while binding rows are plain hash lookups. Changes are reported to listeners on the main
+ * thread and written back on a background thread, with bursts of toggles coalesced into one
+ * write.
+ *
+ * Local changes are also kept as pending until {@link FavoritesSync} has pushed them to the
+ * signed-in user's account; changes pulled from the server are merged per item, with the
+ * most recent change winning. The stored favourites belong to one account at a time: they
+ * are wiped when it signs out, so the next account to sign in never inherits them.
  */
 public final class FavoriteManager {
 
     private static final String PREFS_NAME = "favorites_prefs";
     private static final String KEY_FAVORITES = "favorite_item_ids";
+    private static final String KEY_PENDING = "pending_changes";
+    private static final String KEY_OWNER = "owner_user_id";
+
+    // Toggles within this window are written to disk together
+    private static final long WRITE_DELAY_MS = 500;
+
+    public interface OnFavoriteChangedListener {
+        void onFavoriteChanged(String itemId, boolean favourite);
+    }
+
+    /**
+     * A favourite change made on this device that the server hasn't confirmed yet
+     */
+    public static final class Change {
+        public final String itemId;
+        public final boolean favourite;
+        public final long changedAt;
+
+        Change(String itemId, boolean favourite, long changedAt) {
+            this.itemId = itemId;
+            this.favourite = favourite;
+            this.changedAt = changedAt;
+        }
+
+        String encode() {
+            return itemId + "|" + (favourite ? 1 : 0) + "|" + changedAt;
+        }
+
+        static Change decode(String encoded) {
+            String[] parts = encoded.split("\\|");
+            if (parts.length != 3) return null;
+            try {
+                return new Change(parts[0], "1".equals(parts[1]), Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final Set<String> favorites = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Change> pending = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+    private static final AtomicBoolean writePending = new AtomicBoolean();
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final List<OnFavoriteChangedListener> listeners = new CopyOnWriteArrayList<>();
 
     private FavoriteManager() {
         // no-op
@@ -27,12 +90,38 @@ public final class FavoriteManager {
                 .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
     }
 
+    /**
+     * Load the stored IDs on a background thread so the first lookup doesn't touch the disk
+     */
+    public static void preload(Context ctx) {
+        Context appContext = ctx.getApplicationContext();
+        writer.execute(() -> ensureLoaded(appContext));
+    }
+
+    private static void ensureLoaded(Context ctx) {
+        if (loaded) return;
+        synchronized (favorites) {
+            if (!loaded) {
+                SharedPreferences sp = prefs(ctx);
+                favorites.addAll(sp.getStringSet(KEY_FAVORITES, new HashSet<>()));
+                for (String encoded : sp.getStringSet(KEY_PENDING, new HashSet<>())) {
+                    Change change = Change.decode(encoded);
+                    if (change != null) {
+                        pending.put(change.itemId, change);
+                    }
+                }
+                loaded = true;
+            }
+        }
+    }
+
     /**
      * @return {@code true} if the given item is marked as favourite on this device.
      */
     public static boolean isFavorite(Context ctx, String itemId) {
         if (itemId == null) return false;
-        return prefs(ctx).getStringSet(KEY_FAVORITES, new HashSet<>()).contains(itemId);
+        ensureLoaded(ctx);
+        return favorites.contains(itemId);
     }
 
     /**
@@ -42,14 +131,13 @@ public final class FavoriteManager {
      */
     public static void setFavorite(Context ctx, String itemId, boolean favourite) {
         if (itemId == null) return;
-        SharedPreferences sp = prefs(ctx);
-        Set<String> favs = new HashSet<>(sp.getStringSet(KEY_FAVORITES, new HashSet<>()));
-        if (favourite) {
-            favs.add(itemId);
-        } else {
-            favs.remove(itemId);
-        }
-        sp.edit().putStringSet(KEY_FAVORITES, favs).apply();
+        ensureLoaded(ctx);
+        boolean changed = favourite ? favorites.add(itemId) : favorites.remove(itemId);
+        if (!changed) return;
+        pending.put(itemId, new Change(itemId, favourite, System.currentTimeMillis()));
+        schedulePersist(ctx.getApplicationContext());
+        notifyListeners(itemId, favourite);
+        FavoritesSync.schedulePush(ctx);
     }
 
     /**
@@ -67,6 +155,130 @@ public final class FavoriteManager {
      * Retrieve the set of favourited IDs.
      */
     public static Set<String> getFavorites(Context ctx) {
-        return new HashSet<>(prefs(ctx).getStringSet(KEY_FAVORITES, new HashSet<>()));
+        ensureLoaded(ctx);
+        return new HashSet<>(favorites);
+    }
+
+    /**
+     * Changes made on this device that the server hasn't confirmed yet
+     */
+    public static List<Change> getPendingChanges(Context ctx) {
+        ensureLoaded(ctx);
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Forget changes the server has accepted, unless the item was changed again meanwhile
+     */
+    public static void clearPendingChanges(Context ctx, List<Change> pushed) {
+        boolean removed = false;
+        for (Change change : pushed) {
+            removed |= pending.remove(change.itemId, change);
+        }
+        if (removed) {
+            schedulePersist(ctx.getApplicationContext());
+        }
+    }
+
+    /**
+     * Queue favourites that were never synced, e.g. saved before signing in. They are stamped
+     * with time 0 so that any state the server already has for the same item wins.
+     */
+    public static void stageUnsyncedFavorites(Context ctx) {
+        ensureLoaded(ctx);
+        for (String itemId : favorites) {
+            pending.putIfAbsent(itemId, new Change(itemId, true, 0));
+        }
+        schedulePersist(ctx.getApplicationContext());
+    }
+
+    /**
+     * The user the stored favourites belong to, or null if they were saved while signed out
+     */
+    public static String getOwner(Context ctx) {
+        return prefs(ctx).getString(KEY_OWNER, null);
+    }
+
+    public static void setOwner(Context ctx, String userId) {
+        prefs(ctx).edit().putString(KEY_OWNER, userId).apply();
+    }
+
+    /**
+     * Forget every favourite and pending change on this device, e.g. when their owner signs out
+     */
+    public static void clearAll(Context ctx) {
+        ensureLoaded(ctx);
+        Set<String> removed = new HashSet<>(favorites);
+        favorites.clear();
+        pending.clear();
+        prefs(ctx).edit().remove(KEY_OWNER).apply();
+        schedulePersist(ctx.getApplicationContext());
+        for (String itemId : removed) {
+            notifyListeners(itemId, false);
+        }
+    }
+
+    /**
+     * Apply a change pulled from the server unless a newer local change is pending
+     *
+     * @param changedAt When the change was made, in epoch milliseconds
+     */
+    public static void applyRemoteChange(Context ctx, String itemId, boolean favourite, long changedAt) {
+        ensureLoaded(ctx);
+        Change local = pending.get(itemId);
+        if (local != null) {
+            if (local.changedAt >= changedAt) return;
+            pending.remove(itemId, local);
+        }
+        boolean changed = favourite ? favorites.add(itemId) : favorites.remove(itemId);
+        if (changed || local != null) {
+            schedulePersist(ctx.getApplicationContext());
+        }
+        if (changed) {
+            notifyListeners(itemId, favourite);
+        }
+    }
+
+    /**
+     * Listen for favourite changes; called on the main thread
+     */
+    public static void addListener(OnFavoriteChangedListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public static void removeListener(OnFavoriteChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static void notifyListeners(String itemId, boolean favourite) {
+        Runnable notify = () -> {
+            for (OnFavoriteChangedListener listener : listeners) {
+                listener.onFavoriteChanged(itemId, favourite);
+            }
+        };
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            notify.run();
+        } else {
+            mainHandler.post(notify);
+        }
+    }
+
+    private static void schedulePersist(Context appContext) {
+        // One write per burst; it stores whatever the set holds when it runs
+        if (writePending.compareAndSet(false, true)) {
+            writer.schedule(() -> {
+                writePending.set(false);
+                Set<String> encodedPending = new HashSet<>();
+                for (Change change : pending.values()) {
+                    encodedPending.add(change.encode());
+                }
+                prefs(appContext).edit()
+                        .putStringSet(KEY_FAVORITES, new HashSet<>(favorites))
+                        .putStringSet(KEY_PENDING, encodedPending)
+                        .commit();
+            }, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
     }
 }
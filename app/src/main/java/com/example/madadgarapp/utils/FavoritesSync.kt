@@ -0,0 +1,206 @@
+package com.example.madadgarapp.utils
+
+import android.content.Context
+import android.util.Log
+import com.example.madadgarapp.repository.FavoriteChange
+import com.example.madadgarapp.repository.FavoritesRepository
+import io.github.jan.supabase.gotrue.SessionStatus
+import io.github.jan.supabase.gotrue.auth
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Keeps [FavoriteManager] in sync with the signed-in user's favourites on Supabase.
+ *
+ * Local toggles are pushed in one batch per [PUSH_WINDOW_MS] window, however many taps it
+ * contains. When a user signs in, favourites saved on this device are merged with the server
+ * and then only rows changed since the last pull are fetched. Conflicts on the same item are
+ * settled by the most recent change, both here and on the server.
+ *
+ * Local favourites belong to one account: an explicit sign-out pushes pending toggles and then
+ * wipes them, and favourites left by a different account are dropped rather than merged into
+ * the one signing in. A session that lapses without a sign-out leaves them in place.
+ */
+object FavoritesSync {
+
+    private const val TAG = "FavoritesSync"
+
+    // Toggles inside this window go out as a single request
+    private const val PUSH_WINDOW_MS = 5_000L
+    private const val PULL_PAGE_SIZE = 500
+
+    // A row stamped before the last pull can commit after it; each pull re-reads this much
+    // history, which is harmless because applying a change twice has no effect
+    private const val PULL_OVERLAP_MS = 2 * 60_000L
+
+    private const val PREFS_NAME = "favorites_sync"
+    private const val KEY_SYNCED_AT_PREFIX = "synced_at_"
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val repository = FavoritesRepository()
+    private val mutex = Mutex()
+    private val pushScheduled = AtomicBoolean()
+
+    @Volatile
+    private var userId: String? = null
+
+    @Volatile
+    private var appContext: Context? = null
+
+    /**
+     * Follow the auth session and merge with the server whenever a user signs in
+     */
+    @JvmStatic
+    fun start(context: Context) {
+        val appContext = context.applicationContext
+        this.appContext = appContext
+        scope.launch {
+            try {
+                SupabaseClient.client.auth.sessionStatus.collect { status ->
+                    when (status) {
+                        is SessionStatus.Authenticated -> {
+                            val id = status.session.user?.id
+                            if (id != null && id != userId) {
+                                userId = id
+                                sync(appContext, id)
+                            }
+                        }
+                        // Also emitted when a refresh fails; only an explicit sign-out wipes anything
+                        is SessionStatus.NotAuthenticated -> userId = null
+                        else -> Unit
+                    }
+                }
+            } catch (e: Exception) {
+                Log.e(TAG, "Favourites sync stopped", e)
+            }
+        }
+    }
+
+    /**
+     * Push pending changes once the current window closes. Does nothing while signed out;
+     * the changes stay pending until the next sign-in.
+     */
+    @JvmStatic
+    fun schedulePush(context: Context) {
+        if (userId == null || !pushScheduled.compareAndSet(false, true)) {
+            return
+        }
+        val appContext = context.applicationContext
+        scope.launch {
+            delay(PUSH_WINDOW_MS)
+            pushScheduled.set(false)
+            mutex.withLock { push(appContext) }
+        }
+    }
+
+    /**
+     * Push pending toggles, including those still inside the push window, while the session
+     * is valid. Call right before an explicit sign-out.
+     */
+    suspend fun pushBeforeSignOut() {
+        val context = appContext ?: return
+        mutex.withLock { push(context) }
+    }
+
+    /**
+     * Wipe the signed-out user's favourites after an explicit sign-out. If some toggles could
+     * not be pushed, everything is kept for that user's next sign-in; another account signing
+     * in drops it.
+     */
+    fun onSignedOut() {
+        val context = appContext ?: return
+        userId = null
+        scope.launch {
+            mutex.withLock {
+                if (FavoriteManager.getPendingChanges(context).isEmpty()) {
+                    forgetLocalFavorites(context)
+                } else {
+                    Log.w(TAG, "Keeping local favourites with unpushed changes until the next sign-in")
+                }
+            }
+        }
+    }
+
+    private suspend fun sync(context: Context, userId: String) {
+        mutex.withLock { pull(context, userId) }
+    }
+
+    private suspend fun pull(context: Context, userId: String) {
+        val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+        val cursorKey = KEY_SYNCED_AT_PREFIX + userId
+        val owner = FavoriteManager.getOwner(context)
+        if (owner == null) {
+            // Favourites saved while signed out: offer them to this user
+            FavoriteManager.stageUnsyncedFavorites(context)
+        } else if (owner != userId) {
+            // Left behind by another account; never push them into this one
+            forgetLocalFavorites(context)
+        }
+        FavoriteManager.setOwner(context, userId)
+        push(context)
+
+        var since = prefs.getString(cursorKey, null)?.let { overlapped(it) }
+
+        while (true) {
+            val rows = repository.getChangesSince(userId, since, PULL_PAGE_SIZE).getOrNull() ?: return
+            for (row in rows) {
+                val changedAt = TimestampParser.parseEpochMillis(row.changedAt)
+                if (changedAt != TimestampParser.INVALID) {
+                    FavoriteManager.applyRemoteChange(context, row.itemId, row.isFavorite, changedAt)
+                }
+            }
+            if (rows.isEmpty()) {
+                break
+            }
+            since = rows.last().syncedAt
+            prefs.edit().putString(cursorKey, since).apply()
+            if (rows.size < PULL_PAGE_SIZE) {
+                break
+            }
+        }
+        Log.d(TAG, "Favourites synced for user $userId")
+    }
+
+    /**
+     * Wipe the stored favourites and the pull cursors, which describe what was stored
+     */
+    private fun forgetLocalFavorites(context: Context) {
+        if (FavoriteManager.getOwner(context) == null) {
+            return
+        }
+        FavoriteManager.clearAll(context)
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply()
+        Log.d(TAG, "Cleared local favourites of the signed-out user")
+    }
+
+    /**
+     * The cursor moved back by [PULL_OVERLAP_MS], or null to pull everything if it can't be read
+     */
+    private fun overlapped(syncedAt: String): String? {
+        val millis = TimestampParser.parseEpochMillis(syncedAt)
+        if (millis == TimestampParser.INVALID) {
+            return null
+        }
+        return Instant.ofEpochMilli(millis - PULL_OVERLAP_MS).toString()
+    }
+
+    private suspend fun push(context: Context) {
+        val changes = FavoriteManager.getPendingChanges(context)
+        if (changes.isEmpty()) {
+            return
+        }
+        val batch = changes.map {
+            FavoriteChange(it.itemId, it.favourite, Instant.ofEpochMilli(it.changedAt).toString())
+        }
+        repository.pushChanges(batch).onSuccess {
+            FavoriteManager.clearPendingChanges(context, changes)
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.madadgarapp.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Utility class to persist the feed's near-me mode and radius.
+ */
+public class FeedPreferences {
+
+    private static final String PREFS_NAME = "feed_settings";
+    private static final String KEY_RADIUS_KM = "radius_km";
+    private static final String KEY_NEAR_ME = "near_me_enabled";
+
+    /** Radius used until the user picks one (matches the original fixed feed radius) */
+    public static final double DEFAULT_RADIUS_KM = 0.5;
+
+    /**
+     * Returns the stored feed radius in kilometers. Default = 500 m.
+     */
+    public static double getRadiusKm(Context context) {
+        return getPrefs(context).getFloat(KEY_RADIUS_KM, (float) DEFAULT_RADIUS_KM);
+    }
+
+    public static void setRadiusKm(Context context, double radiusKm) {
+        getPrefs(context).edit().putFloat(KEY_RADIUS_KM, (float) radiusKm).apply();
+    }
+
+    /**
+     * Returns whether the feed is sorted nearest first. Default = false (feed order).
+     */
+    public static boolean isNearMeEnabled(Context context) {
+        return getPrefs(context).getBoolean(KEY_NEAR_ME, false);
+    }
+
+    public static void setNearMeEnabled(Context context, boolean enabled) {
+        getPrefs(context).edit().putBoolean(KEY_NEAR_ME, enabled).apply();
+    }
+
+    private static SharedPreferences getPrefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
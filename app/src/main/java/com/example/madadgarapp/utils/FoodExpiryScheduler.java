@@ -1,199 +1,291 @@
 package com.example.madadgarapp.utils;
 
-import android.app.job.JobInfo;
 import android.app.job.JobScheduler;
-import android.content.ComponentName;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.util.Log;
 
-import com.example.madadgarapp.services.FoodItemExpiryService;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
+import com.example.madadgarapp.models.Item;
+import com.example.madadgarapp.services.FoodExpiryWorker;
+
+import java.util.List;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Utility class to schedule and manage the Food item expiry cleanup job
+ * Utility class to schedule and manage the Food item expiry cleanup.
+ *
+ * Instead of polling, known expires_at instants are kept in a sorted set and a single
+ * WorkManager job is armed for the earliest one. Items expiring within a short window
+ * of each other are handled by the same run, and every run re-arms for the next expiry.
  */
 public class FoodExpiryScheduler {
-    
+
     private static final String TAG = "FoodExpiryScheduler";
-    
-    // Schedule job to run every 30 minutes
-    private static final long INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(30);
-    
-    // Allow for some flexibility in scheduling (15 minutes)
-    private static final long FLEX_MILLIS = TimeUnit.MINUTES.toMillis(15);
-    
+
+    private static final String WORK_NAME = "food_expiry_cleanup";
+
+    // Job ID used by the old periodic JobService; cancelled so upgraded installs stop polling
+    private static final int LEGACY_JOB_ID = 1001;
+
+    // Expiries falling within this window of the earliest one are cleaned up together
+    private static final long COALESCE_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final String PREFS_NAME = "food_expiry_scheduler";
+    private static final String KEY_ARMED_AT = "armed_at";
+
+    private static final Object lock = new Object();
+    // Sorted and deduplicated, since the same items are registered again on every refresh
+    private static final TreeSet<Long> knownExpiries = new TreeSet<>();
+
     /**
-     * Schedule the food expiry cleanup job
-     * 
+     * Make sure an expiry run is armed.
+     * If no run is pending, one is enqueued immediately; it cleans up anything already
+     * expired and then re-arms itself for the next expiry reported by the server.
+     *
      * @param context Application context
-     * @return true if job was scheduled successfully, false otherwise
+     * @return true if a run is pending, false otherwise
      */
     public static boolean scheduleExpiryJob(Context context) {
         try {
-            JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
-            if (jobScheduler == null) {
-                Log.e(TAG, "JobScheduler service not available");
-                return false;
-            }
-            
-            // Check if job is already scheduled
-            if (isJobScheduled(jobScheduler, FoodItemExpiryService.JOB_ID)) {
-                Log.d(TAG, "Food expiry job already scheduled");
-                return true;
-            }
-            
-            ComponentName componentName = new ComponentName(context, FoodItemExpiryService.class);
-            
-            JobInfo jobInfo = new JobInfo.Builder(FoodItemExpiryService.JOB_ID, componentName)
-                    .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY) // Requires network connectivity
-                    .setPersisted(true) // Persist across device restarts
-                    .setPeriodic(INTERVAL_MILLIS, FLEX_MILLIS) // Run every 30 minutes with 15-minute flexibility
-                    .setRequiresCharging(false) // Can run without charging
-                    .setRequiresDeviceIdle(false) // Can run when device is not idle
-                    .build();
-            
-            int result = jobScheduler.schedule(jobInfo);
-            
-            if (result == JobScheduler.RESULT_SUCCESS) {
-                Log.d(TAG, "Food expiry job scheduled successfully");
-                return true;
-            } else {
-                Log.e(TAG, "Failed to schedule food expiry job. Result: " + result);
-                return false;
+            cancelLegacyJob(context);
+
+            synchronized (lock) {
+                if (getPendingArmedAt(context) > 0) {
+                    Log.d(TAG, "Food expiry run already armed");
+                    return true;
+                }
+                // KEEP leaves a run that is still enqueued or running alone
+                enqueue(context, System.currentTimeMillis(), ExistingWorkPolicy.KEEP);
             }
-            
+            return true;
+
         } catch (Exception e) {
-            Log.e(TAG, "Exception scheduling food expiry job", e);
+            Log.e(TAG, "Exception scheduling food expiry run", e);
             return false;
         }
     }
-    
+
     /**
-     * Schedule the food expiry cleanup job to run immediately (for testing)
-     * 
+     * Schedule the food expiry cleanup to run immediately (for testing)
+     *
      * @param context Application context
-     * @return true if job was scheduled successfully, false otherwise
+     * @return true if the run was scheduled successfully, false otherwise
      */
     public static boolean scheduleImmediateExpiryJob(Context context) {
         try {
-            JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
-            if (jobScheduler == null) {
-                Log.e(TAG, "JobScheduler service not available");
-                return false;
-            }
-            
-            ComponentName componentName = new ComponentName(context, FoodItemExpiryService.class);
-            
-            // Create a one-time job that runs immediately
-            JobInfo jobInfo = new JobInfo.Builder(FoodItemExpiryService.JOB_ID + 1, componentName)
-                    .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
-                    .setOverrideDeadline(1000) // Run within 1 second
-                    .setRequiresCharging(false)
-                    .setRequiresDeviceIdle(false)
-                    .build();
-            
-            int result = jobScheduler.schedule(jobInfo);
-            
-            if (result == JobScheduler.RESULT_SUCCESS) {
-                Log.d(TAG, "Immediate food expiry job scheduled successfully");
-                return true;
-            } else {
-                Log.e(TAG, "Failed to schedule immediate food expiry job. Result: " + result);
-                return false;
+            synchronized (lock) {
+                enqueue(context, System.currentTimeMillis(), ExistingWorkPolicy.REPLACE);
             }
-            
+            Log.d(TAG, "Immediate food expiry run scheduled successfully");
+            return true;
+
         } catch (Exception e) {
-            Log.e(TAG, "Exception scheduling immediate food expiry job", e);
+            Log.e(TAG, "Exception scheduling immediate food expiry run", e);
             return false;
         }
     }
-    
+
     /**
-     * Cancel the food expiry cleanup job
-     * 
+     * Record the expiry times of loaded items and re-arm if one is earlier than the pending run.
+     * Non-food items and items without an expiry are ignored.
+     *
      * @param context Application context
-     * @return true if job was cancelled successfully, false otherwise
+     * @param items Items that just entered the local cache
      */
-    public static boolean cancelExpiryJob(Context context) {
-        try {
-            JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
-            if (jobScheduler == null) {
-                Log.e(TAG, "JobScheduler service not available");
-                return false;
+    public static void registerItems(Context context, List<Item> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            for (Item item : items) {
+                long expiryTime = item.getExpiryTime();
+                if ("Food".equals(item.getMainCategory()) && expiryTime > now && expiryTime != Long.MAX_VALUE) {
+                    knownExpiries.add(expiryTime);
+                }
             }
-            
-            jobScheduler.cancel(FoodItemExpiryService.JOB_ID);
-            Log.d(TAG, "Food expiry job cancelled");
-            return true;
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Exception cancelling food expiry job", e);
-            return false;
+            armNext(context);
         }
     }
-    
+
     /**
-     * Check if the food expiry job is currently scheduled
-     * 
+     * Record a single expiry time, e.g. for an item the user just shared
+     *
      * @param context Application context
-     * @return true if job is scheduled, false otherwise
+     * @param expiryTime Expiry time in milliseconds
      */
-    public static boolean isExpiryJobScheduled(Context context) {
+    public static void registerExpiry(Context context, long expiryTime) {
+        if (expiryTime <= System.currentTimeMillis() || expiryTime == Long.MAX_VALUE) {
+            return;
+        }
+
+        synchronized (lock) {
+            knownExpiries.add(expiryTime);
+            armNext(context);
+        }
+    }
+
+    /**
+     * Called by {@link FoodExpiryWorker} after a cleanup run to drop handled expiries and re-arm
+     *
+     * @param context Application context
+     * @param runAt Time the run started, in milliseconds
+     * @param nextServerExpiry Next expiry reported by the server, or 0 if none
+     */
+    public static void onExpiryRunFinished(Context context, long runAt, long nextServerExpiry) {
+        synchronized (lock) {
+            while (!knownExpiries.isEmpty() && knownExpiries.first() <= runAt) {
+                knownExpiries.pollFirst();
+            }
+            if (nextServerExpiry > runAt) {
+                knownExpiries.add(nextServerExpiry);
+            }
+
+            getPrefs(context).edit().remove(KEY_ARMED_AT).apply();
+
+            if (knownExpiries.isEmpty()) {
+                Log.d(TAG, "No upcoming food expiries, nothing armed");
+                return;
+            }
+
+            // The finishing worker still owns the unique work name, so chain after it
+            enqueue(context, knownExpiries.first() + COALESCE_WINDOW_MILLIS, ExistingWorkPolicy.APPEND_OR_REPLACE);
+        }
+    }
+
+    /**
+     * Cancel the food expiry cleanup
+     *
+     * @param context Application context
+     * @return true if the run was cancelled successfully, false otherwise
+     */
+    public static boolean cancelExpiryJob(Context context) {
         try {
-            JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
-            if (jobScheduler == null) {
-                return false;
+            WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+            synchronized (lock) {
+                knownExpiries.clear();
+                getPrefs(context).edit().remove(KEY_ARMED_AT).apply();
             }
-            
-            return isJobScheduled(jobScheduler, FoodItemExpiryService.JOB_ID);
-            
+            Log.d(TAG, "Food expiry run cancelled");
+            return true;
+
         } catch (Exception e) {
-            Log.e(TAG, "Exception checking if food expiry job is scheduled", e);
+            Log.e(TAG, "Exception cancelling food expiry run", e);
             return false;
         }
     }
-    
+
     /**
-     * Helper method to check if a job with given ID is scheduled
+     * Check if a food expiry run is currently pending
+     *
+     * @param context Application context
+     * @return true if a run is enqueued or running, false otherwise
      */
-    private static boolean isJobScheduled(JobScheduler jobScheduler, int jobId) {
+    public static boolean isExpiryJobScheduled(Context context) {
         try {
-            for (JobInfo jobInfo : jobScheduler.getAllPendingJobs()) {
-                if (jobInfo.getId() == jobId) {
+            List<WorkInfo> infos = WorkManager.getInstance(context)
+                    .getWorkInfosForUniqueWork(WORK_NAME)
+                    .get();
+            for (WorkInfo info : infos) {
+                if (!info.getState().isFinished()) {
                     return true;
                 }
             }
             return false;
+
         } catch (Exception e) {
-            Log.e(TAG, "Exception checking job schedule status", e);
+            Log.e(TAG, "Exception checking if food expiry run is scheduled", e);
             return false;
         }
     }
-    
+
     /**
-     * Get information about all scheduled jobs (for debugging)
+     * Log the armed run and the known expiries (for debugging)
      */
     public static void logScheduledJobs(Context context) {
-        try {
-            JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
-            if (jobScheduler == null) {
-                Log.d(TAG, "JobScheduler service not available");
-                return;
-            }
-            
-            var pendingJobs = jobScheduler.getAllPendingJobs();
-            Log.d(TAG, "Total scheduled jobs: " + pendingJobs.size());
-            
-            for (JobInfo jobInfo : pendingJobs) {
-                Log.d(TAG, "Job ID: " + jobInfo.getId() + 
-                      ", Component: " + jobInfo.getService().getClassName() +
-                      ", Periodic: " + jobInfo.isPeriodic() +
-                      ", Interval: " + jobInfo.getIntervalMillis() + "ms");
-            }
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Exception logging scheduled jobs", e);
+        synchronized (lock) {
+            long armedAt = getPrefs(context).getLong(KEY_ARMED_AT, 0);
+            Log.d(TAG, "Known food expiries: " + knownExpiries.size() +
+                  ", Next expiry: " + (knownExpiries.isEmpty() ? "none" : knownExpiries.first()) +
+                  ", Armed at: " + (armedAt > 0 ? armedAt : "none"));
+        }
+    }
+
+    /**
+     * Arm a run for the earliest known expiry if it is sooner than the pending one.
+     * Must be called while holding {@link #lock}.
+     */
+    private static void armNext(Context context) {
+        if (knownExpiries.isEmpty()) {
+            return;
+        }
+
+        long target = knownExpiries.first() + COALESCE_WINDOW_MILLIS;
+        long armedAt = getPendingArmedAt(context);
+        if (armedAt > 0 && armedAt <= target) {
+            // The pending run fires first and will re-arm for this expiry afterwards
+            return;
+        }
+
+        if (armedAt == 0 && getPrefs(context).contains(KEY_ARMED_AT)) {
+            // The last armed time has passed: that run may still be running, waiting for the
+            // network or retrying, or it may have failed or been cancelled. Chain after it if it
+            // is still alive, otherwise replace it, so a lost run can't block re-arming.
+            enqueue(context, target, ExistingWorkPolicy.APPEND_OR_REPLACE);
+            return;
+        }
+
+        enqueue(context, target, ExistingWorkPolicy.REPLACE);
+    }
+
+    /**
+     * Time of the armed run if it is still in the future, otherwise 0.
+     * A time that has passed proves nothing: only a successful run clears it.
+     */
+    private static long getPendingArmedAt(Context context) {
+        long armedAt = getPrefs(context).getLong(KEY_ARMED_AT, 0);
+        return armedAt > System.currentTimeMillis() ? armedAt : 0;
+    }
+
+    /**
+     * Enqueue the unique cleanup run for the given time. Must be called while holding {@link #lock}.
+     */
+    private static void enqueue(Context context, long runAt, ExistingWorkPolicy policy) {
+        long delay = Math.max(0, runAt - System.currentTimeMillis());
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, policy, buildRequest(delay));
+        getPrefs(context).edit().putLong(KEY_ARMED_AT, runAt).apply();
+        Log.d(TAG, "Food expiry run armed in " + delay + "ms");
+    }
+
+    private static OneTimeWorkRequest buildRequest(long delayMillis) {
+        return new OneTimeWorkRequest.Builder(FoodExpiryWorker.class)
+                .setInitialDelay(delayMillis, TimeUnit.MILLISECONDS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+    }
+
+    private static SharedPreferences getPrefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Remove the periodic JobScheduler job registered by older versions of the app
+     */
+    private static void cancelLegacyJob(Context context) {
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (jobScheduler != null) {
+            jobScheduler.cancel(LEGACY_JOB_ID);
         }
     }
 }
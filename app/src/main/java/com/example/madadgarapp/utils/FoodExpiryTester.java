@@ -4,8 +4,6 @@ import android.content.Context;
 import android.util.Log;
 import android.widget.Toast;
 
-import com.example.madadgarapp.services.FoodItemExpiryService;
-
 /**
  * Utility class to test and demonstrate the Food expiry feature
  * This class provides methods to manually trigger expiry checks and test the feature
@@ -68,7 +66,7 @@ public class FoodExpiryTester {
             
             String message = "Food Expiry Scheduler Status:\n\n" +
                            "• Scheduled: " + (isScheduled ? "✓ Yes" : "✗ No") + "\n" +
-                           "• Runs every: 30 minutes\n" +
+                           "• Runs at: next Food expiry\n" +
                            "• Checks for: Expired Food items\n" +
                            "• Action: Automatic deletion\n\n" +
                            "Food items will be automatically deleted after their expiry time to keep fresh items visible.";
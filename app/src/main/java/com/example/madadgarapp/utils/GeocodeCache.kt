@@ -0,0 +1,153 @@
+package com.example.madadgarapp.utils
+
+import android.content.Context
+import android.location.Geocoder
+import android.util.Log
+import android.util.LruCache
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlin.math.cos
+import kotlin.math.floor
+
+/**
+ * Cache for reverse-geocoded addresses.
+ *
+ * Coordinates are snapped to cells of roughly 50 m, so nearby lookups share one address.
+ * Addresses live in an in-memory LRU backed by a small SharedPreferences store, both with a
+ * TTL. Misses are geocoded on the IO dispatcher, and concurrent lookups for the same cell
+ * share a single Geocoder call.
+ */
+object GeocodeCache {
+
+    private const val TAG = "GeocodeCache"
+
+    private const val PREFS_NAME = "geocode_cache"
+    private const val MEMORY_ENTRIES = 256
+    private const val DISK_ENTRIES = 500
+    private const val TTL_MS = 7 * 24 * 60 * 60 * 1000L // 7 days
+
+    // 50 m expressed in degrees of latitude
+    private const val CELL_DEG = 50.0 / 111_320.0
+
+    private class Entry(val address: String, val fetchedAt: Long)
+
+    private val memory = LruCache<String, Entry>(MEMORY_ENTRIES)
+    private val inFlight = HashMap<String, Deferred<String?>>()
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+    /**
+     * Address for the coordinates, or the raw coordinates if it can't be resolved.
+     * Safe to call from the main thread; only the memory lookup runs on the caller's thread.
+     */
+    suspend fun getAddress(context: Context, coordinates: LocationUtils.Coordinates): String {
+        val key = cellKey(coordinates)
+        peek(key)?.let { return it }
+
+        val lookup = synchronized(inFlight) {
+            inFlight.getOrPut(key) {
+                val appContext = context.applicationContext
+                scope.async {
+                    try {
+                        readDisk(appContext, key) ?: geocode(appContext, coordinates)?.also {
+                            writeDisk(appContext, key, it)
+                        }
+                    } finally {
+                        synchronized(inFlight) { inFlight.remove(key) }
+                    }
+                }
+            }
+        }
+        return lookup.await() ?: fallback(coordinates)
+    }
+
+    /**
+     * Address from the memory cache only, or null on a miss
+     */
+    @JvmStatic
+    fun peek(coordinates: LocationUtils.Coordinates): String? = peek(cellKey(coordinates))
+
+    private fun peek(key: String): String? {
+        val entry = memory.get(key) ?: return null
+        if (System.currentTimeMillis() - entry.fetchedAt > TTL_MS) {
+            memory.remove(key)
+            return null
+        }
+        return entry.address
+    }
+
+    /**
+     * Row and column of the ~50 m cell; columns are widened by 1/cos(lat) to stay ~50 m wide
+     */
+    private fun cellKey(coordinates: LocationUtils.Coordinates): String {
+        val row = floor(coordinates.latitude / CELL_DEG).toLong()
+        val rowLat = Math.toRadians((row + 0.5) * CELL_DEG)
+        val lonCellDeg = CELL_DEG / cos(rowLat).coerceAtLeast(0.01)
+        val col = floor(coordinates.longitude / lonCellDeg).toLong()
+        return "$row:$col"
+    }
+
+    private fun readDisk(context: Context, key: String): String? {
+        val stored = prefs(context).getString(key, null) ?: return null
+        val separator = stored.indexOf('|')
+        if (separator < 0) {
+            return null
+        }
+        val fetchedAt = stored.substring(0, separator).toLongOrNull() ?: return null
+        if (System.currentTimeMillis() - fetchedAt > TTL_MS) {
+            return null
+        }
+        val address = stored.substring(separator + 1)
+        memory.put(key, Entry(address, fetchedAt))
+        return address
+    }
+
+    private fun writeDisk(context: Context, key: String, address: String) {
+        val now = System.currentTimeMillis()
+        memory.put(key, Entry(address, now))
+        val prefs = prefs(context)
+        val editor = prefs.edit().putString(key, "$now|$address")
+
+        // Keep the store small: drop expired entries, then the oldest ones
+        val all = prefs.all
+        if (all.size >= DISK_ENTRIES) {
+            val byAge = all.entries
+                .mapNotNull { e -> (e.value as? String)?.substringBefore('|')?.toLongOrNull()?.let { e.key to it } }
+                .sortedBy { it.second }
+            val excess = all.size - DISK_ENTRIES + 1
+            byAge.forEachIndexed { i, (oldKey, fetchedAt) ->
+                if (i < excess || now - fetchedAt > TTL_MS) {
+                    editor.remove(oldKey)
+                }
+            }
+        }
+        editor.apply()
+    }
+
+    @Suppress("DEPRECATION")
+    private fun geocode(context: Context, coordinates: LocationUtils.Coordinates): String? {
+        return try {
+            val addresses = Geocoder(context).getFromLocation(coordinates.latitude, coordinates.longitude, 1)
+            if (addresses?.isNotEmpty() == true) {
+                val address = addresses[0]
+                buildString {
+                    address.thoroughfare?.let { append("$it, ") }
+                    address.locality?.let { append("$it, ") }
+                    address.adminArea?.let { append(it) }
+                }.takeIf { it.isNotBlank() }
+            } else {
+                null
+            }
+        } catch (e: Exception) {
+            Log.e(TAG, "Error getting address from coordinates", e)
+            null
+        }
+    }
+
+    private fun fallback(coordinates: LocationUtils.Coordinates) =
+        "${coordinates.latitude}, ${coordinates.longitude}"
+
+    private fun prefs(context: Context) = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+}
@@ -0,0 +1,25 @@
+package com.example.madadgarapp.utils
+
+import okhttp3.ConnectionPool
+import okhttp3.OkHttpClient
+import java.util.concurrent.TimeUnit
+
+/**
+ * The app's single OkHttp client. Supabase API calls and Glide image fetches both go through
+ * it, so they share one connection pool: HTTP/2 connections and TLS sessions to the Supabase
+ * host are reused across them instead of being set up twice.
+ */
+object HttpClients {
+
+    private const val MAX_IDLE_CONNECTIONS = 5
+    private const val KEEP_ALIVE_MINUTES = 5L
+
+    @JvmStatic
+    val okHttp: OkHttpClient by lazy {
+        OkHttpClient.Builder()
+            .connectionPool(ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .connectTimeout(15, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build()
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.madadgarapp.utils;
+
+import com.example.madadgarapp.models.Item;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over item titles and descriptions.
+ *
+ * Text is lowercased and stripped of diacritics, then split into tokens. Each token has a
+ * posting list of the items containing it, and is itself posted under its trigrams, so a
+ * query resolves to matching tokens without scanning any item text. Multi-word queries match
+ * in any word order and results are ranked by weighted term frequency with a recency boost.
+ *
+ * Adding, replacing or removing an item only touches that item's postings.
+ * Not thread-safe: confine each instance to a single thread.
+ */
+public class ItemSearchIndex {
+
+    // Title hits count more than description hits
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Age at which the recency boost has halved
+    private static final double RECENCY_SCALE_MILLIS = 24 * 60 * 60 * 1000.0;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Indexed item with its distinct tokens
+     */
+    private static class Doc {
+        final Item item;
+        final String[] tokens;
+
+        Doc(Item item, String[] tokens) {
+            this.item = item;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Doc ids containing a token, with the token's weighted frequency in each
+     */
+    private static class Postings {
+        int[] docs = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Search hit with its relevance score
+     */
+    public static class Hit {
+        public final Item item;
+        public final double score;
+
+        Hit(Item item, double score) {
+            this.item = item;
+            this.score = score;
+        }
+    }
+
+    private final List<Doc> docTable = new ArrayList<>();
+    private final ArrayDeque<Integer> freeDocIds = new ArrayDeque<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final TreeMap<String, Postings> tokenPostings = new TreeMap<>();
+    // trigram -> tokens containing it
+    private final Map<String, Set<String>> trigramPostings = new HashMap<>();
+
+    // Per-query scratch space indexed by doc id, reused across searches
+    private double[] scores = new double[0];
+    private int[] matchedTerms = new int[0];
+    private int[] touchedBy = new int[0];
+    private int queryStamp;
+
+    /**
+     * Add an item, replacing any previous version with the same id
+     */
+    public void put(Item item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        remove(item.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, item.getTitle(), TITLE_WEIGHT);
+        addTokens(weights, item.getDescription(), DESCRIPTION_WEIGHT);
+
+        int doc = freeDocIds.isEmpty() ? docTable.size() : freeDocIds.pop();
+        Doc entry = new Doc(item, weights.keySet().toArray(new String[0]));
+        if (doc == docTable.size()) {
+            docTable.add(entry);
+        } else {
+            docTable.set(doc, entry);
+        }
+        docIds.put(item.getId(), doc);
+
+        for (Map.Entry<String, Integer> e : weights.entrySet()) {
+            Postings postings = tokenPostings.get(e.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                tokenPostings.put(e.getKey(), postings);
+                indexTrigrams(e.getKey());
+            }
+            postings.add(doc, e.getValue());
+        }
+    }
+
+    /**
+     * Remove an item and its postings
+     */
+    public void remove(String itemId) {
+        Integer doc = docIds.remove(itemId);
+        if (doc == null) {
+            return;
+        }
+        for (String token : docTable.get(doc).tokens) {
+            Postings postings = tokenPostings.get(token);
+            if (postings == null) {
+                continue;
+            }
+            postings.remove(doc);
+            if (postings.size == 0) {
+                tokenPostings.remove(token);
+                unindexTrigrams(token);
+            }
+        }
+        docTable.set(doc, null);
+        freeDocIds.push(doc);
+    }
+
+    /**
+     * Whether an item with this id is indexed
+     */
+    public boolean contains(String itemId) {
+        return docIds.containsKey(itemId);
+    }
+
+    public int size() {
+        return docIds.size();
+    }
+
+    public void clear() {
+        docTable.clear();
+        freeDocIds.clear();
+        docIds.clear();
+        tokenPostings.clear();
+        trigramPostings.clear();
+    }
+
+    /**
+     * Find items containing every query word (as a substring of one of their words), best first
+     *
+     * @param query Free text query
+     * @param now Current time in milliseconds, for the recency boost
+     * @return Hits ordered by descending score; empty if the query has no words
+     */
+    public List<Hit> search(String query, long now) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return Collections.emptyList();
+        }
+
+        // Resolve each word to indexed tokens, then walk the most selective word first
+        List<Collection<String>> termTokens = new ArrayList<>(terms.length);
+        int[] estimates = new int[terms.length];
+        Integer[] order = new Integer[terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            Collection<String> tokens = matchingTokens(terms[t]);
+            if (tokens.isEmpty()) {
+                return Collections.emptyList();
+            }
+            termTokens.add(tokens);
+            for (String token : tokens) {
+                estimates[t] += tokenPostings.get(token).size;
+            }
+            order[t] = t;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(estimates[a], estimates[b]));
+
+        ensureScratchCapacity(docTable.size());
+        int stamp = ++queryStamp;
+        int[] touched = new int[estimates[order[0]]];
+        int touchedCount = 0;
+
+        for (int pass = 0; pass < order.length; pass++) {
+            String term = terms[order[pass]];
+            for (String token : termTokens.get(order[pass])) {
+                // Whole-word matches rank above partial ones
+                double boost = token.equals(term) ? 1.0 : 0.5;
+                Postings postings = tokenPostings.get(token);
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    if (pass == 0) {
+                        if (touchedBy[doc] != stamp) {
+                            touchedBy[doc] = stamp;
+                            matchedTerms[doc] = 1;
+                            scores[doc] = 0;
+                            touched[touchedCount++] = doc;
+                        }
+                    } else if (touchedBy[doc] != stamp || matchedTerms[doc] < pass) {
+                        // Missed an earlier word
+                        continue;
+                    } else if (matchedTerms[doc] == pass) {
+                        matchedTerms[doc] = pass + 1;
+                    }
+                    scores[doc] += boost * (1.0 + Math.log(postings.weights[i]));
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (matchedTerms[doc] == terms.length) {
+                Item item = docTable.get(doc).item;
+                double age = Math.max(0, now - item.getCreatedAt());
+                double recency = 1.0 / (1.0 + age / RECENCY_SCALE_MILLIS);
+                hits.add(new Hit(item, scores[doc] + recency));
+            }
+        }
+        hits.sort((a, b) -> Double.compare(b.score, a.score));
+        return hits;
+    }
+
+    /**
+     * Lowercase, strip diacritics and split into words
+     */
+    public static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String[] parts = folded.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        int count = 0;
+        for (String part : parts) {
+            if (!part.isEmpty()) {
+                parts[count++] = part;
+            }
+        }
+        return Arrays.copyOf(parts, count);
+    }
+
+    /**
+     * Indexed tokens that contain {@code term}
+     */
+    private Collection<String> matchingTokens(String term) {
+        if (term.length() < 3) {
+            // Too short for trigrams: match as a word prefix
+            return tokenPostings.subMap(term, term + Character.MAX_VALUE).keySet();
+        }
+
+        Set<String> candidates = null;
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            Set<String> tokens = trigramPostings.get(term.substring(i, i + 3));
+            if (tokens == null) {
+                return Collections.emptySet();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(tokens);
+            } else {
+                candidates.retainAll(tokens);
+            }
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        // Trigram intersection can over-match; confirm the actual substring
+        candidates.removeIf(token -> !token.contains(term));
+        return candidates;
+    }
+
+    private void ensureScratchCapacity(int docCount) {
+        if (scores.length < docCount) {
+            int capacity = Math.max(docCount, scores.length * 2);
+            scores = new double[capacity];
+            matchedTerms = new int[capacity];
+            touchedBy = new int[capacity];
+            queryStamp = 0;
+        }
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void indexTrigrams(String token) {
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            String trigram = token.substring(i, i + 3);
+            Set<String> tokens = trigramPostings.get(trigram);
+            if (tokens == null) {
+                tokens = new HashSet<>();
+                trigramPostings.put(trigram, tokens);
+            }
+            tokens.add(token);
+        }
+    }
+
+    private void unindexTrigrams(String token) {
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            String trigram = token.substring(i, i + 3);
+            Set<String> tokens = trigramPostings.get(trigram);
+            if (tokens != null) {
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    trigramPostings.remove(trigram);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.madadgarapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Inflates a screen's layout ahead of time on a background thread, so the fragment that shows
+ * it can take the finished view instead of inflating on the main thread when first opened.
+ *
+ * Inflation uses a clone of the activity's inflater rather than AsyncLayoutInflater, which
+ * drops AppCompat's view factory and would turn Buttons and RadioButtons into plain platform
+ * widgets. A prewarmed view is handed out once and only to an inflater with the same context;
+ * the owning activity must call {@link #clear()} when it is destroyed.
+ */
+public final class LayoutPrewarmer {
+
+    private static final String TAG = "LayoutPrewarmer";
+
+    private static final ExecutorService inflaterThread = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Only touched on the main thread
+    private static final SparseArray<View> prewarmed = new SparseArray<>();
+    private static final SparseArray<Boolean> inFlight = new SparseArray<>();
+    private static int generation;
+
+    private LayoutPrewarmer() {
+    }
+
+    /**
+     * Start inflating a layout in the background unless it is already ready or on its way
+     *
+     * @param parent Container the view will be added to; used for its layout params only
+     */
+    public static void prewarm(@NonNull AppCompatActivity activity, @LayoutRes int layoutId,
+                               @NonNull ViewGroup parent) {
+        if (prewarmed.get(layoutId) != null || inFlight.get(layoutId) != null) {
+            return;
+        }
+        inFlight.put(layoutId, true);
+        final int requestGeneration = generation;
+        LayoutInflater inflater = activity.getLayoutInflater().cloneInContext(activity);
+        inflaterThread.execute(() -> {
+            View view;
+            try {
+                view = inflater.inflate(layoutId, parent, false);
+            } catch (RuntimeException e) {
+                // Some views need a Looper to construct; the fragment will inflate normally
+                Log.w(TAG, "Could not prewarm layout " + layoutId, e);
+                view = null;
+            }
+            View inflated = view;
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                inFlight.remove(layoutId);
+                if (inflated != null) {
+                    prewarmed.put(layoutId, inflated);
+                }
+            });
+        });
+    }
+
+    /**
+     * Run view creation on the prewarming thread, so background inflations never overlap
+     */
+    static void runOnInflaterThread(Runnable task) {
+        inflaterThread.execute(task);
+    }
+
+    /**
+     * The prewarmed view for a layout if there is one, otherwise a normal inflation
+     */
+    @NonNull
+    public static View inflate(@NonNull LayoutInflater inflater, @LayoutRes int layoutId,
+                               @Nullable ViewGroup container) {
+        View view = prewarmed.get(layoutId);
+        if (view != null) {
+            prewarmed.remove(layoutId);
+            if (view.getContext() == inflater.getContext()) {
+                return view;
+            }
+        }
+        return inflater.inflate(layoutId, container, false);
+    }
+
+    /**
+     * Drop all prewarmed views and ignore inflations still running
+     */
+    public static void clear() {
+        generation++;
+        prewarmed.clear();
+        inFlight.clear();
+    }
+}
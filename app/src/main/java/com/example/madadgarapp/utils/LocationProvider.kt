@@ -0,0 +1,263 @@
+package com.example.madadgarapp.utils
+
+import android.Manifest
+import android.annotation.SuppressLint
+import android.content.Context
+import android.content.pm.PackageManager
+import android.location.Location
+import android.os.Looper
+import android.os.SystemClock
+import android.util.Log
+import androidx.core.content.ContextCompat
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.lifecycleScope
+import androidx.lifecycle.repeatOnLifecycle
+import com.google.android.gms.location.CurrentLocationRequest
+import com.google.android.gms.location.FusedLocationProviderClient
+import com.google.android.gms.location.LocationCallback
+import com.google.android.gms.location.LocationRequest
+import com.google.android.gms.location.LocationResult
+import com.google.android.gms.location.LocationServices
+import com.google.android.gms.location.Priority
+import com.google.android.gms.tasks.CancellationTokenSource
+import com.google.android.gms.tasks.Task
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.filterNotNull
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlin.coroutines.resume
+
+/**
+ * App-wide source of the user's location.
+ *
+ * All screens share one balanced-power update subscription, which runs only while at least
+ * one observer is resumed. One-off requests are answered from the newest cached fix when it
+ * is fresh and accurate enough, and only fall back to a high-accuracy (GPS) fix when a
+ * balanced-power fix is not. Main thread only.
+ */
+object LocationProvider {
+
+    private const val TAG = "LocationProvider"
+
+    // A cached fix younger than this is served without asking for a new one
+    const val MAX_FIX_AGE_MS = 2 * 60 * 1000L
+
+    // Accuracy needed for the feed radius and distance labels
+    const val FEED_ACCURACY_METERS = 100f
+
+    // Accuracy needed when pinning a post to the user's position
+    const val PICKER_ACCURACY_METERS = 30f
+
+    // Shared updates: about one wifi/cell fix a minute, only after a real move
+    private const val UPDATE_INTERVAL_MS = 60 * 1000L
+    private const val MIN_UPDATE_INTERVAL_MS = 30 * 1000L
+    private const val MIN_UPDATE_DISTANCE_METERS = 50f
+
+    fun interface Listener {
+        fun onLocationChanged(coordinates: LocationUtils.Coordinates)
+    }
+
+    private val _location = MutableStateFlow<LocationUtils.Coordinates?>(null)
+
+    /**
+     * Latest known location, or null until the first fix
+     */
+    @JvmStatic
+    val location: StateFlow<LocationUtils.Coordinates?> = _location.asStateFlow()
+
+    private var client: FusedLocationProviderClient? = null
+    private var lastFix: Location? = null
+    private var subscribers = 0
+    private var updatesActive = false
+
+    private val updateCallback = object : LocationCallback() {
+        override fun onLocationResult(result: LocationResult) {
+            result.lastLocation?.let { publish(it) }
+        }
+    }
+
+    /**
+     * Deliver location changes to the listener while the owner is resumed, keeping the shared
+     * update subscription alive for that time. Pass a fragment's view lifecycle owner; a hidden
+     * tab is held at STARTED, so it stops counting as a subscriber.
+     */
+    @JvmStatic
+    fun observe(owner: LifecycleOwner, context: Context, listener: Listener) {
+        val appContext = context.applicationContext
+        owner.lifecycleScope.launch {
+            owner.repeatOnLifecycle(Lifecycle.State.RESUMED) {
+                start(appContext)
+                try {
+                    location.filterNotNull().collect { listener.onLocationChanged(it) }
+                } finally {
+                    stop()
+                }
+            }
+        }
+    }
+
+    /**
+     * Start the shared update subscription if observers were waiting for location permission
+     */
+    @JvmStatic
+    fun onPermissionGranted(context: Context) {
+        if (subscribers > 0 && !updatesActive) {
+            requestUpdates(context.applicationContext)
+        }
+    }
+
+    /**
+     * Get a location no older than [maxAgeMs] and at least as accurate as [accuracyMeters].
+     * Falls back to the best fix available if none meets the policy.
+     */
+    suspend fun getLocation(
+        context: Context,
+        maxAgeMs: Long = MAX_FIX_AGE_MS,
+        accuracyMeters: Float = FEED_ACCURACY_METERS
+    ): LocationUtils.Coordinates? {
+        if (!LocationUtils.hasLocationPermission(context)) {
+            Log.w(TAG, "Location permission not granted")
+            return null
+        }
+        if (isUsable(lastFix, maxAgeMs, accuracyMeters)) {
+            return lastFix?.let { toCoordinates(it) }
+        }
+
+        val client = client(context)
+        val cached = await(lastLocation(client))
+        cached?.let { publish(it) }
+        if (isUsable(cached, maxAgeMs, accuracyMeters)) {
+            return toCoordinates(cached!!)
+        }
+
+        val balanced = currentLocation(client, Priority.PRIORITY_BALANCED_POWER_ACCURACY, maxAgeMs)
+        balanced?.let { publish(it) }
+        if (isUsable(balanced, maxAgeMs, accuracyMeters)) {
+            return toCoordinates(balanced!!)
+        }
+
+        // Only wake the GPS when the cheaper fix isn't good enough and fine location is allowed
+        val precise = if (hasFinePermission(context)) {
+            currentLocation(client, Priority.PRIORITY_HIGH_ACCURACY, maxAgeMs)?.also { publish(it) }
+        } else {
+            null
+        }
+        return (precise ?: balanced ?: cached)?.let { toCoordinates(it) }
+    }
+
+    private fun start(context: Context) {
+        subscribers++
+        if (subscribers == 1) {
+            requestUpdates(context)
+        }
+    }
+
+    private fun stop() {
+        if (subscribers == 0) {
+            return
+        }
+        subscribers--
+        if (subscribers == 0 && updatesActive) {
+            client?.removeLocationUpdates(updateCallback)
+            updatesActive = false
+            Log.d(TAG, "Stopped location updates")
+        }
+    }
+
+    @SuppressLint("MissingPermission")
+    private fun requestUpdates(context: Context) {
+        if (!LocationUtils.hasLocationPermission(context)) {
+            return
+        }
+        val client = client(context)
+        val request = LocationRequest.Builder(Priority.PRIORITY_BALANCED_POWER_ACCURACY, UPDATE_INTERVAL_MS)
+            .setMinUpdateIntervalMillis(MIN_UPDATE_INTERVAL_MS)
+            .setMinUpdateDistanceMeters(MIN_UPDATE_DISTANCE_METERS)
+            .build()
+        try {
+            client.requestLocationUpdates(request, updateCallback, Looper.getMainLooper())
+            updatesActive = true
+            Log.d(TAG, "Started location updates")
+            // Seed observers from the system's cached fix instead of waiting for the first update
+            lastLocation(client)?.addOnSuccessListener { fix -> fix?.let { publish(it) } }
+        } catch (e: SecurityException) {
+            Log.e(TAG, "Security exception when requesting location updates", e)
+        }
+    }
+
+    private fun publish(fix: Location) {
+        val previous = lastFix
+        if (previous != null && fix.elapsedRealtimeNanos < previous.elapsedRealtimeNanos) {
+            return
+        }
+        lastFix = fix
+        // StateFlow drops values equal to the current one, so repeated fixes don't refilter anything
+        _location.value = toCoordinates(fix)
+    }
+
+    private fun isUsable(fix: Location?, maxAgeMs: Long, accuracyMeters: Float): Boolean {
+        if (fix == null) {
+            return false
+        }
+        val ageMs = (SystemClock.elapsedRealtimeNanos() - fix.elapsedRealtimeNanos) / 1_000_000
+        return ageMs <= maxAgeMs && (!fix.hasAccuracy() || fix.accuracy <= accuracyMeters)
+    }
+
+    private fun client(context: Context): FusedLocationProviderClient {
+        return client ?: LocationServices.getFusedLocationProviderClient(context.applicationContext)
+            .also { client = it }
+    }
+
+    private fun hasFinePermission(context: Context): Boolean {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) ==
+            PackageManager.PERMISSION_GRANTED
+    }
+
+    @SuppressLint("MissingPermission")
+    private fun lastLocation(client: FusedLocationProviderClient): Task<Location>? {
+        return try {
+            client.lastLocation
+        } catch (e: SecurityException) {
+            Log.e(TAG, "Security exception when reading last location", e)
+            null
+        }
+    }
+
+    @SuppressLint("MissingPermission")
+    private suspend fun currentLocation(
+        client: FusedLocationProviderClient,
+        priority: Int,
+        maxAgeMs: Long
+    ): Location? {
+        val request = CurrentLocationRequest.Builder()
+            .setPriority(priority)
+            .setMaxUpdateAgeMillis(maxAgeMs)
+            .build()
+        val cancellation = CancellationTokenSource()
+        return try {
+            await(client.getCurrentLocation(request, cancellation.token)) { cancellation.cancel() }
+        } catch (e: SecurityException) {
+            Log.e(TAG, "Security exception when getting current location", e)
+            null
+        }
+    }
+
+    private suspend fun await(task: Task<Location>?, onCancel: () -> Unit = {}): Location? {
+        if (task == null) {
+            return null
+        }
+        return suspendCancellableCoroutine { continuation ->
+            continuation.invokeOnCancellation { onCancel() }
+            task.addOnSuccessListener { continuation.resume(it) }
+                .addOnFailureListener { e ->
+                    Log.w(TAG, "Location request failed", e)
+                    continuation.resume(null)
+                }
+        }
+    }
+
+    private fun toCoordinates(fix: Location) = LocationUtils.Coordinates(fix.latitude, fix.longitude)
+}
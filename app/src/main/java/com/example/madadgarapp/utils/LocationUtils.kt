@@ -3,14 +3,8 @@ package com.example.madadgarapp.utils
 import android.Manifest
 import android.content.Context
 import android.content.pm.PackageManager
-import android.location.Location
 import android.util.Log
 import androidx.core.content.ContextCompat
-import com.google.android.gms.location.*
-import com.google.android.gms.tasks.Task
-import kotlinx.coroutines.suspendCancellableCoroutine
-import kotlin.coroutines.resume
-import kotlin.coroutines.resumeWithException
 import kotlin.math.*
 
 /**
@@ -46,85 +40,10 @@ object LocationUtils {
     }
     
     /**
-     * Get current location using FusedLocationProviderClient
+     * Get current location, served from [LocationProvider]'s cached fix when it is fresh enough
      */
     suspend fun getCurrentLocation(context: Context): Coordinates? {
-        if (!hasLocationPermission(context)) {
-            Log.w(TAG, "Location permission not granted")
-            return null
-        }
-        
-        return suspendCancellableCoroutine { continuation ->
-            val fusedLocationClient = LocationServices.getFusedLocationProviderClient(context)
-            
-            try {
-                val locationRequest = LocationRequest.Builder(
-                    Priority.PRIORITY_HIGH_ACCURACY,
-                    10000L // 10 seconds
-                ).apply {
-                    setMinUpdateDistanceMeters(10f)
-                    setGranularity(Granularity.GRANULARITY_PERMISSION_LEVEL)
-                    setWaitForAccurateLocation(true)
-                }.build()
-                
-                fusedLocationClient.getCurrentLocation(
-                    Priority.PRIORITY_HIGH_ACCURACY,
-                    null
-                ).addOnSuccessListener { location ->
-                    if (location != null) {
-                        val coordinates = Coordinates(location.latitude, location.longitude)
-                        Log.d(TAG, "Current location: $coordinates")
-                        continuation.resume(coordinates)
-                    } else {
-                        Log.w(TAG, "Location is null")
-                        continuation.resume(null)
-                    }
-                }.addOnFailureListener { exception ->
-                    Log.e(TAG, "Failed to get current location", exception)
-                    continuation.resumeWithException(exception)
-                }
-                
-            } catch (e: SecurityException) {
-                Log.e(TAG, "Security exception when getting location", e)
-                continuation.resumeWithException(e)
-            }
-        }
-    }
-    
-    /**
-     * Get current location synchronously (blocking call)
-     * Use this from background thread only
-     */
-    @JvmStatic
-    fun getCurrentLocationSync(context: Context): Coordinates? {
-        if (!hasLocationPermission(context)) {
-            Log.w(TAG, "Location permission not granted")
-            return null
-        }
-        
-        val fusedLocationClient = LocationServices.getFusedLocationProviderClient(context)
-        
-        try {
-            val locationTask = fusedLocationClient.getCurrentLocation(
-                Priority.PRIORITY_HIGH_ACCURACY,
-                null
-            )
-            
-            // Wait for the task to complete (blocking call)
-            val location = com.google.android.gms.tasks.Tasks.await(locationTask)
-            
-            return if (location != null) {
-                val coordinates = Coordinates(location.latitude, location.longitude)
-                Log.d(TAG, "Current location (sync): $coordinates")
-                coordinates
-            } else {
-                Log.w(TAG, "Location is null (sync)")
-                null
-            }
-        } catch (e: Exception) {
-            Log.e(TAG, "Exception getting current location (sync)", e)
-            return null
-        }
+        return LocationProvider.getLocation(context)
     }
     
     /**
@@ -162,6 +81,7 @@ object LocationUtils {
     /**
      * Format distance for display
      */
+    @JvmStatic
     fun formatDistance(distanceKm: Double): String {
         return when {
             distanceKm < 1.0 -> "${(distanceKm * 1000).toInt()} m"
@@ -233,34 +153,13 @@ object LocationUtils {
     }
     
     /**
-     * Get address from coordinates (reverse geocoding)
+     * Get address from coordinates (reverse geocoding), cached by [GeocodeCache]
      */
-    fun getAddressFromCoordinates(
+    suspend fun getAddressFromCoordinates(
         context: Context,
         coordinates: Coordinates
     ): String {
-        return try {
-            val geocoder = android.location.Geocoder(context)
-            val addresses = geocoder.getFromLocation(
-                coordinates.latitude,
-                coordinates.longitude,
-                1
-            )
-            
-            if (addresses?.isNotEmpty() == true) {
-                val address = addresses[0]
-                buildString {
-                    address.thoroughfare?.let { append("$it, ") }
-                    address.locality?.let { append("$it, ") }
-                    address.adminArea?.let { append(it) }
-                }
-            } else {
-                "${coordinates.latitude}, ${coordinates.longitude}"
-            }
-        } catch (e: Exception) {
-            Log.e(TAG, "Error getting address from coordinates", e)
-            "${coordinates.latitude}, ${coordinates.longitude}"
-        }
+        return GeocodeCache.getAddress(context, coordinates)
     }
     
     /**
@@ -0,0 +1,91 @@
+package com.example.madadgarapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One main-looper timer that fires at the start of every minute for all screens showing
+ * relative times. It only runs while at least one observer's lifecycle is resumed, so tabs
+ * that are hidden (held at STARTED) don't keep it going.
+ */
+public final class MinuteTicker {
+
+    private static final long MINUTE_MILLIS = 60 * 1000L;
+
+    public interface OnTickListener {
+        void onMinuteTick();
+    }
+
+    private static MinuteTicker instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<OnTickListener> listeners = new ArrayList<>();
+    private final Runnable tick = this::onTick;
+
+    private MinuteTicker() {
+    }
+
+    public static synchronized MinuteTicker getInstance() {
+        if (instance == null) {
+            instance = new MinuteTicker();
+        }
+        return instance;
+    }
+
+    /**
+     * Tick the listener while the owner is resumed. Also ticks once on every resume so labels
+     * that went stale in the background or in a hidden tab are refreshed right away.
+     */
+    public void observe(LifecycleOwner owner, OnTickListener listener) {
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onResume(@NonNull LifecycleOwner owner) {
+                add(listener);
+                listener.onMinuteTick();
+            }
+
+            @Override
+            public void onPause(@NonNull LifecycleOwner owner) {
+                remove(listener);
+            }
+        });
+    }
+
+    private void add(OnTickListener listener) {
+        if (listeners.contains(listener)) {
+            return;
+        }
+        listeners.add(listener);
+        if (listeners.size() == 1) {
+            schedule();
+        }
+    }
+
+    private void remove(OnTickListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            handler.removeCallbacks(tick);
+        }
+    }
+
+    private void schedule() {
+        long now = System.currentTimeMillis();
+        handler.postDelayed(tick, MINUTE_MILLIS - now % MINUTE_MILLIS);
+    }
+
+    private void onTick() {
+        for (OnTickListener listener : new ArrayList<>(listeners)) {
+            listener.onMinuteTick();
+        }
+        if (!listeners.isEmpty()) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.madadgarapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.madadgarapp.R;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * One {@link RecyclerView.RecycledViewPool} per activity for the item lists (feed, saved posts
+ * and my posts), so rows inflated for one list are reused by the others. Adapters use their
+ * row layout as the view type, which keeps the different row kinds apart in the pool.
+ *
+ * Rows can also be created ahead of time on a background thread while the main thread is
+ * idle, so the first scroll of a list doesn't inflate.
+ */
+public final class RowViewPool {
+
+    private static final String TAG = "RowViewPool";
+
+    // About two screens of rows per type
+    private static final int ITEM_ROWS = 16;
+    private static final int MY_POST_ROWS = 10;
+
+    private static final Map<FragmentActivity, RecyclerView.RecycledViewPool> pools = new WeakHashMap<>();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private RowViewPool() {
+    }
+
+    /**
+     * The activity's shared pool; it is emptied when the activity is destroyed
+     */
+    @NonNull
+    public static RecyclerView.RecycledViewPool get(@NonNull FragmentActivity activity) {
+        RecyclerView.RecycledViewPool pool = pools.get(activity);
+        if (pool == null) {
+            pool = new RecyclerView.RecycledViewPool();
+            pool.setMaxRecycledViews(R.layout.item_layout, ITEM_ROWS);
+            pool.setMaxRecycledViews(R.layout.item_my_post_layout, MY_POST_ROWS);
+            pools.put(activity, pool);
+
+            RecyclerView.RecycledViewPool created = pool;
+            activity.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    created.clear();
+                    pools.remove(activity);
+                }
+            });
+        }
+        return pool;
+    }
+
+    /**
+     * Make a list use the shared pool. Its rows go back to the pool when it is detached, so
+     * the next list opened can take them.
+     */
+    public static void attach(@NonNull RecyclerView recyclerView, @NonNull FragmentActivity activity) {
+        recyclerView.setRecycledViewPool(get(activity));
+        if (recyclerView.getLayoutManager() instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) recyclerView.getLayoutManager()).setRecycleChildrenOnDetach(true);
+        }
+    }
+
+    /**
+     * Once the main thread is idle, create rows in the background until the pool holds
+     * {@code count} of them
+     *
+     * @param parent A list using the pool; used for the rows' layout params only
+     * @param adapter Adapter whose rows to create; they are only created, never bound
+     */
+    public static void prewarm(@NonNull FragmentActivity activity, @NonNull RecyclerView parent,
+                               @NonNull RecyclerView.Adapter<?> adapter, @LayoutRes int viewType,
+                               int count) {
+        RecyclerView.RecycledViewPool pool = get(activity);
+        Looper.myQueue().addIdleHandler(() -> {
+            int missing = count - pool.getRecycledViewCount(viewType);
+            if (missing <= 0 || activity.isFinishing()) {
+                return false;
+            }
+            LayoutPrewarmer.runOnInflaterThread(() -> {
+                for (int i = 0; i < missing; i++) {
+                    RecyclerView.ViewHolder holder;
+                    try {
+                        holder = adapter.createViewHolder(parent, viewType);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Could not prewarm rows of type " + viewType, e);
+                        return;
+                    }
+                    mainHandler.post(() -> {
+                        if (pools.get(activity) == pool) {
+                            pool.putRecycledView(holder);
+                        }
+                    });
+                }
+            });
+            return false;
+        });
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.madadgarapp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Uniform lat/lng grid over a fixed set of points, for radius and nearest-first queries.
+ *
+ * Points are stored in primitive arrays sorted by grid cell, with their latitude cosine
+ * precomputed, so a query only visits the cells overlapping the search circle. Candidates
+ * are first screened with a cheap equirectangular distance and only survivors get the exact
+ * Haversine check, which compares the Haversine term itself so no atan2 or sqrt is needed.
+ *
+ * The index is immutable; rebuild it when the points change. Queries reuse scratch
+ * buffers, so confine each instance to a single thread. Free of Android dependencies so
+ * it can be benchmarked on the JVM.
+ */
+public final class SpatialGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    // Smallest cell allowed, which keeps packed cell keys within 39 bits
+    private static final double MIN_CELL_SIZE_KM = 0.05;
+    private static final int ID_BITS = 24;
+    private static final int MAX_POINTS = 1 << ID_BITS;
+
+    // The equirectangular estimate is within a fraction of a percent of Haversine at these
+    // distances and away from the poles; the slack keeps the prefilter from ever rejecting a
+    // true hit. Closer to a pole a short hop can span a wide longitude difference and the
+    // estimate overshoots, so searches reaching past the latitude limit skip the prefilter.
+    private static final double PREFILTER_MAX_RADIUS_KM = 100.0;
+    private static final double PREFILTER_MAX_LATITUDE = 85.0;
+    private static final double PREFILTER_SLACK = 1.01;
+
+    private final double cellSizeKm;
+    private final double cellDeg;
+    private final int rows;
+    private final int lonCells;
+    // Column width that divides 360 exactly, so columns wrap cleanly at the antimeridian
+    private final double lonCellDeg;
+
+    // Distinct occupied cells in ascending key order; points of cell i are [cellStart[i], cellStart[i + 1])
+    private final long[] cellKeys;
+    private final int[] cellStart;
+
+    // Points in cell order
+    private final double[] latRad;
+    private final double[] lonRad;
+    private final double[] cosLat;
+    private final int[] ids;
+
+    // Query scratch space
+    private int[] hitIds = new int[64];
+    private double[] hitChords = new double[64];
+    private int hitCount;
+
+    /**
+     * Build the index. Point {@code i} is reported by queries as id {@code i}.
+     *
+     * @param latitudes Latitudes in degrees
+     * @param longitudes Longitudes in degrees, same length as {@code latitudes}
+     * @param cellSizeKm Grid cell size; about the typical query radius works well
+     */
+    public SpatialGridIndex(double[] latitudes, double[] longitudes, double cellSizeKm) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitudes and longitudes differ in length");
+        }
+        int n = latitudes.length;
+        if (n > MAX_POINTS) {
+            throw new IllegalArgumentException("Too many points: " + n);
+        }
+        this.cellSizeKm = Math.max(cellSizeKm, MIN_CELL_SIZE_KM);
+        this.cellDeg = this.cellSizeKm / KM_PER_DEGREE;
+        this.rows = (int) Math.ceil(180.0 / cellDeg) + 1;
+        this.lonCells = (int) Math.ceil(360.0 / cellDeg);
+        this.lonCellDeg = 360.0 / lonCells;
+
+        // Sort points by cell with a single primitive sort of (cell key, point) pairs
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = (cellKey(row(latitudes[i]), col(longitudes[i])) << ID_BITS) | i;
+        }
+        Arrays.sort(packed);
+
+        latRad = new double[n];
+        lonRad = new double[n];
+        cosLat = new double[n];
+        ids = new int[n];
+        long[] keys = new long[n];
+        int[] starts = new int[n + 1];
+        int cells = 0;
+        long previousKey = -1;
+        for (int p = 0; p < n; p++) {
+            long key = packed[p] >>> ID_BITS;
+            int id = (int) (packed[p] & (MAX_POINTS - 1));
+            if (key != previousKey) {
+                keys[cells] = key;
+                starts[cells] = p;
+                cells++;
+                previousKey = key;
+            }
+            ids[p] = id;
+            latRad[p] = Math.toRadians(latitudes[id]);
+            lonRad[p] = Math.toRadians(longitudes[id]);
+            cosLat[p] = Math.cos(latRad[p]);
+        }
+        starts[cells] = n;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Ids of all points within {@code radiusKm} of the center, in no particular order
+     */
+    public int[] withinRadius(double latitude, double longitude, double radiusKm) {
+        collect(latitude, longitude, radiusKm);
+        return Arrays.copyOf(hitIds, hitCount);
+    }
+
+    /**
+     * Ids of up to {@code k} points nearest to the center, closest first.
+     * The search widens from one cell outwards and stops at {@code maxRadiusKm}.
+     */
+    public int[] nearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        double radius = Math.min(cellSizeKm, maxRadiusKm);
+        collect(latitude, longitude, radius);
+        while (hitCount < k && radius < maxRadiusKm) {
+            radius = Math.min(radius * 2, maxRadiusKm);
+            collect(latitude, longitude, radius);
+        }
+
+        // Keep the k smallest chords in a max-heap, then drain it back to front
+        int size = Math.min(k, hitCount);
+        int[] heapIds = new int[size];
+        double[] heapChords = new double[size];
+        int heapSize = 0;
+        for (int i = 0; i < hitCount; i++) {
+            if (heapSize < size) {
+                heapIds[heapSize] = hitIds[i];
+                heapChords[heapSize] = hitChords[i];
+                siftUp(heapIds, heapChords, heapSize++);
+            } else if (hitChords[i] < heapChords[0]) {
+                heapIds[0] = hitIds[i];
+                heapChords[0] = hitChords[i];
+                siftDown(heapIds, heapChords, heapSize);
+            }
+        }
+        int[] result = new int[size];
+        while (heapSize > 0) {
+            result[--heapSize] = heapIds[0];
+            heapIds[0] = heapIds[heapSize];
+            heapChords[0] = heapChords[heapSize];
+            siftDown(heapIds, heapChords, heapSize);
+        }
+        return result;
+    }
+
+    /**
+     * Great-circle distance in kilometers between two points (Haversine)
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double chord = haversine(phi2 - phi1, Math.toRadians(lon2 - lon1), Math.cos(phi1), Math.cos(phi2));
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(chord)));
+    }
+
+    /**
+     * Fill the scratch buffers with every point within the radius and its Haversine term
+     */
+    private void collect(double latitude, double longitude, double radiusKm) {
+        hitCount = 0;
+        if (ids.length == 0 || radiusKm < 0) {
+            return;
+        }
+        double centerLat = Math.toRadians(latitude);
+        double centerLon = Math.toRadians(longitude);
+        double centerCos = Math.cos(centerLat);
+
+        double angle = Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI);
+        double maxChord = Math.sin(angle / 2) * Math.sin(angle / 2);
+
+        // Rows covering the latitude band, and the widest longitude span inside it
+        double latDelta = Math.toDegrees(angle);
+        double bandMin = latitude - latDelta;
+        double bandMax = latitude + latDelta;
+        int rowMin = row(bandMin);
+        int rowMax = row(bandMax);
+        int colMin;
+        int colMax;
+        double maxAbsLat = Math.max(Math.abs(bandMin), Math.abs(bandMax));
+        boolean prefilter = radiusKm <= PREFILTER_MAX_RADIUS_KM && maxAbsLat < PREFILTER_MAX_LATITUDE;
+        double maxPlanar = angle * PREFILTER_SLACK * angle * PREFILTER_SLACK;
+        if (maxAbsLat >= 89.0) {
+            // The circle touches a pole: every longitude is in range
+            colMin = 0;
+            colMax = lonCells - 1;
+        } else {
+            double lonDelta = Math.toDegrees(Math.asin(Math.min(1.0, Math.sin(angle) / Math.cos(Math.toRadians(maxAbsLat)))));
+            colMin = (int) Math.floor((longitude - lonDelta + 180.0) / lonCellDeg);
+            colMax = (int) Math.floor((longitude + lonDelta + 180.0) / lonCellDeg);
+            if (colMax - colMin + 1 >= lonCells) {
+                colMin = 0;
+                colMax = lonCells - 1;
+            }
+        }
+
+        for (int r = rowMin; r <= rowMax; r++) {
+            int from = Math.floorMod(colMin, lonCells);
+            int to = Math.floorMod(colMax, lonCells);
+            if (from <= to) {
+                scanCells(r, from, to, centerLat, centerLon, centerCos, prefilter, maxPlanar, maxChord);
+            } else {
+                // Range wraps around the antimeridian
+                scanCells(r, from, lonCells - 1, centerLat, centerLon, centerCos, prefilter, maxPlanar, maxChord);
+                scanCells(r, 0, to, centerLat, centerLon, centerCos, prefilter, maxPlanar, maxChord);
+            }
+        }
+    }
+
+    /**
+     * Check the points of the occupied cells in one row between two columns (inclusive)
+     */
+    private void scanCells(int r, int fromCol, int toCol, double centerLat, double centerLon, double centerCos,
+                           boolean prefilter, double maxPlanar, double maxChord) {
+        long firstKey = cellKey(r, fromCol);
+        long lastKey = cellKey(r, toCol);
+        int cell = Arrays.binarySearch(cellKeys, firstKey);
+        if (cell < 0) {
+            cell = -cell - 1;
+        }
+        for (; cell < cellKeys.length && cellKeys[cell] <= lastKey; cell++) {
+            for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                double dLat = latRad[p] - centerLat;
+                double dLon = lonRad[p] - centerLon;
+                if (dLon > Math.PI) {
+                    dLon -= 2 * Math.PI;
+                } else if (dLon < -Math.PI) {
+                    dLon += 2 * Math.PI;
+                }
+                if (prefilter) {
+                    double x = dLon * 0.5 * (centerCos + cosLat[p]);
+                    if (dLat * dLat + x * x > maxPlanar) {
+                        continue;
+                    }
+                }
+                double chord = haversine(dLat, dLon, centerCos, cosLat[p]);
+                if (chord <= maxChord) {
+                    addHit(ids[p], chord);
+                }
+            }
+        }
+    }
+
+    private void addHit(int id, double chord) {
+        if (hitCount == hitIds.length) {
+            hitIds = Arrays.copyOf(hitIds, hitCount * 2);
+            hitChords = Arrays.copyOf(hitChords, hitCount * 2);
+        }
+        hitIds[hitCount] = id;
+        hitChords[hitCount] = chord;
+        hitCount++;
+    }
+
+    /**
+     * The Haversine "a" term: sin^2(dLat/2) + cos(lat1) * cos(lat2) * sin^2(dLon/2).
+     * It grows monotonically with distance, so it can be compared directly.
+     */
+    private static double haversine(double dLat, double dLon, double cos1, double cos2) {
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        return sinLat * sinLat + cos1 * cos2 * sinLon * sinLon;
+    }
+
+    private int row(double latitude) {
+        int r = (int) Math.floor((latitude + 90.0) / cellDeg);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private int col(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / lonCellDeg), lonCells);
+    }
+
+    private long cellKey(int r, int c) {
+        return (long) r * lonCells + c;
+    }
+
+    private static void siftUp(int[] heapIds, double[] heapChords, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapChords[parent] >= heapChords[i]) {
+                return;
+            }
+            swap(heapIds, heapChords, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heapIds, double[] heapChords, int size) {
+        int i = 0;
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heapChords[left] > heapChords[largest]) {
+                largest = left;
+            }
+            if (right < size && heapChords[right] > heapChords[largest]) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(heapIds, heapChords, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(int[] heapIds, double[] heapChords, int a, int b) {
+        int id = heapIds[a];
+        heapIds[a] = heapIds[b];
+        heapIds[b] = id;
+        double chord = heapChords[a];
+        heapChords[a] = heapChords[b];
+        heapChords[b] = chord;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.madadgarapp.utils
+
+import android.os.Build
+import android.os.Process
+import android.os.SystemClock
+import android.util.Log
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Timings of the work done while the app starts, kept for the life of the process.
+ *
+ * Times are milliseconds since the process started ([SystemClock.uptimeMillis] based), so
+ * spans from different threads can be compared with each other and with the first frame.
+ */
+object StartupTrace {
+
+    private const val TAG = "StartupTrace"
+
+    enum class Status { SUCCEEDED, FAILED, SKIPPED }
+
+    /**
+     * One initializer run
+     */
+    data class Span(
+        val name: String,
+        val thread: String,
+        val startMs: Long,
+        val durationMs: Long,
+        val status: Status
+    )
+
+    private val spans = CopyOnWriteArrayList<Span>()
+
+    // Before API 24 there is no process start time; the Application's creation is close enough
+    private val processStart: Long =
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) Process.getStartUptimeMillis()
+        else SystemClock.uptimeMillis()
+
+    @Volatile
+    private var firstFrameMs = -1L
+
+    /**
+     * Milliseconds since the process started
+     */
+    @JvmStatic
+    fun now(): Long = SystemClock.uptimeMillis() - processStart
+
+    internal fun record(name: String, startMs: Long, status: Status) {
+        val span = Span(name, Thread.currentThread().name, startMs, now() - startMs, status)
+        spans.add(span)
+        Log.d(TAG, "${span.name}: ${span.status} in ${span.durationMs} ms on ${span.thread} (started at ${span.startMs} ms)")
+    }
+
+    internal fun markFirstFrame() {
+        if (firstFrameMs < 0) {
+            firstFrameMs = now()
+            Log.i(TAG, "First frame drawn ${firstFrameMs} ms after process start")
+        }
+    }
+
+    /**
+     * All recorded spans, in the order they finished
+     */
+    @JvmStatic
+    fun getSpans(): List<Span> = ArrayList(spans)
+
+    @JvmStatic
+    fun getSpan(name: String): Span? = spans.firstOrNull { it.name == name }
+
+    /**
+     * Time from process start to the first drawn frame, or -1 if nothing has been drawn yet
+     */
+    @JvmStatic
+    fun getTimeToFirstFrameMs(): Long = firstFrameMs
+}
@@ -0,0 +1,137 @@
+package com.example.madadgarapp.utils;
+
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.HttpException;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+
+/**
+ * Builds URLs for resized renditions of images in Supabase Storage, so the app downloads and
+ * decodes images at the size they are shown instead of the full-resolution original.
+ * URLs that are not public Supabase Storage objects are returned unchanged.
+ *
+ * Image transformations can be disabled for a Storage project. The first requests find out:
+ * once a rendition is rejected while its original loads, renditions are no longer requested
+ * for the rest of the process, so images don't each pay for a failed request first.
+ */
+public final class StorageImageUrls {
+
+    private static final String TAG = "StorageImageUrls";
+
+    private static final String OBJECT_PATH = "/storage/v1/object/public/";
+    private static final String RENDER_PATH = "/storage/v1/render/image/public/";
+    private static final int QUALITY = 75;
+
+    private static final int UNKNOWN = 0;
+    private static final int SUPPORTED = 1;
+    private static final int UNSUPPORTED = 2;
+
+    private static volatile int renderSupport = UNKNOWN;
+
+    private StorageImageUrls() {
+    }
+
+    /**
+     * URL of a rendition cropped to cover the given size
+     *
+     * @param url Public URL of the original image
+     * @param widthPx Target width in pixels
+     * @param heightPx Target height in pixels
+     * @return Render URL, or {@code url} itself if it can't be resized
+     */
+    public static String sized(String url, int widthPx, int heightPx) {
+        if (url == null || widthPx <= 0 || heightPx <= 0 || renderSupport == UNSUPPORTED) {
+            return url;
+        }
+        int pathStart = url.indexOf(OBJECT_PATH);
+        if (pathStart < 0) {
+            return url;
+        }
+        String renderUrl = url.substring(0, pathStart) + RENDER_PATH
+                + url.substring(pathStart + OBJECT_PATH.length());
+        return renderUrl + (renderUrl.indexOf('?') < 0 ? '?' : '&')
+                + "width=" + widthPx + "&height=" + heightPx + "&resize=cover&quality=" + QUALITY;
+    }
+
+    /**
+     * Glide request for an image at the given size: the rendition, falling back to the
+     * original if it fails, or just the original once renditions are known to be unavailable
+     *
+     * @param options Options applied to both the rendition and the original
+     */
+    public static RequestBuilder<Drawable> request(RequestManager glide, String url, int widthPx,
+                                                   int heightPx, RequestOptions options) {
+        String renderUrl = sized(url, widthPx, heightPx);
+        RequestBuilder<Drawable> original = glide.load(url).apply(options);
+        if (renderUrl == null || renderUrl.equals(url)) {
+            return original;
+        }
+        RequestBuilder<Drawable> rendition = glide.load(renderUrl).apply(options);
+        if (renderSupport == UNKNOWN) {
+            RenderProbe probe = new RenderProbe(renderUrl);
+            rendition = rendition.listener(probe);
+            original = original.listener(probe);
+        }
+        return rendition.error(original);
+    }
+
+    /**
+     * Watches one rendition request and its fallback to learn whether renditions are served
+     */
+    private static final class RenderProbe implements RequestListener<Drawable> {
+        private final String renderUrl;
+        private volatile boolean renderRejected;
+
+        RenderProbe(String renderUrl) {
+            this.renderUrl = renderUrl;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+                                    @NonNull Target<Drawable> target, boolean isFirstResource) {
+            if (renderUrl.equals(model) && isClientError(e)) {
+                renderRejected = true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model,
+                                       Target<Drawable> target, @NonNull DataSource dataSource,
+                                       boolean isFirstResource) {
+            if (renderUrl.equals(model)) {
+                renderSupport = SUPPORTED;
+            } else if (renderRejected && renderSupport == UNKNOWN) {
+                // The original exists, so the rendition was refused rather than missing
+                renderSupport = UNSUPPORTED;
+                Log.i(TAG, "Storage image transformations unavailable, loading originals");
+            }
+            return false;
+        }
+
+        private static boolean isClientError(@Nullable GlideException e) {
+            if (e == null) {
+                return false;
+            }
+            for (Throwable cause : e.getRootCauses()) {
+                if (cause instanceof HttpException) {
+                    int status = ((HttpException) cause).getStatusCode();
+                    if (status >= 400 && status < 500) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
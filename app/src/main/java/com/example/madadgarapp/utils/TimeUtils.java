@@ -7,6 +7,9 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for handling timestamps and time-related operations
@@ -15,6 +18,11 @@ public class TimeUtils {
     
     private static final String TAG = "TimeUtils";
     
+    // Labels for anything under a day depend only on the whole minutes or hours elapsed,
+    // so each of those buckets is formatted once and reused
+    private static final Map<Long, String> relativeLabelCache = new ConcurrentHashMap<>();
+    private static volatile Locale relativeLabelLocale;
+    
     /**
      * Parse timestamp string to long with improved handling for various formats
      * 
@@ -27,8 +35,14 @@ public class TimeUtils {
             return System.currentTimeMillis();
         }
         
+        // Fast path for the formats Supabase actually returns; no exceptions, no allocation
+        long parsed = TimestampParser.parseEpochMillis(timestamp);
+        if (parsed != TimestampParser.INVALID) {
+            return parsed;
+        }
+        
         try {
-            // Try to parse ISO timestamp first (Supabase format: 2024-01-15T10:30:00.000Z)
+            // Try to parse ISO timestamp (e.g. 2024-01-15T10:30Z without seconds)
             return Instant.parse(timestamp).toEpochMilli();
         } catch (Exception e1) {
             try {
@@ -65,12 +79,29 @@ public class TimeUtils {
         }
         
         try {
-            return DateUtils.getRelativeTimeSpanString(
-                    timestamp,
-                    System.currentTimeMillis(),
-                    DateUtils.MINUTE_IN_MILLIS,
-                    DateUtils.FORMAT_ABBREV_RELATIVE
-            );
+            long now = System.currentTimeMillis();
+            long elapsed = now - timestamp;
+            if (elapsed < 0 || elapsed >= DateUtils.DAY_IN_MILLIS) {
+                return DateUtils.getRelativeTimeSpanString(
+                        timestamp, now, DateUtils.MINUTE_IN_MILLIS, DateUtils.FORMAT_ABBREV_RELATIVE);
+            }
+            
+            Locale locale = Locale.getDefault();
+            if (!locale.equals(relativeLabelLocale)) {
+                relativeLabelCache.clear();
+                relativeLabelLocale = locale;
+            }
+            // Keys 0-59 are minutes, 60 and up are hours
+            long bucket = elapsed < DateUtils.HOUR_IN_MILLIS
+                    ? elapsed / DateUtils.MINUTE_IN_MILLIS
+                    : 60 + elapsed / DateUtils.HOUR_IN_MILLIS;
+            String label = relativeLabelCache.get(bucket);
+            if (label == null) {
+                label = DateUtils.getRelativeTimeSpanString(
+                        timestamp, now, DateUtils.MINUTE_IN_MILLIS, DateUtils.FORMAT_ABBREV_RELATIVE).toString();
+                relativeLabelCache.put(bucket, label);
+            }
+            return label;
         } catch (Exception e) {
             Log.w(TAG, "Error formatting relative time for timestamp: " + timestamp, e);
             return "Unknown time";
@@ -0,0 +1,181 @@
+package com.example.madadgarapp.utils;
+
+/**
+ * Single-pass, allocation-free parser for the timestamp formats Supabase returns, e.g.
+ * <ul>
+ *     <li>{@code 2024-01-15T10:30:00.123456+00:00} (Postgres timestamptz)</li>
+ *     <li>{@code 2024-01-15T10:30:00.000Z}</li>
+ *     <li>{@code 2024-01-15T10:30:00} (no offset, treated as UTC)</li>
+ *     <li>{@code 1705314600000} (epoch milliseconds)</li>
+ * </ul>
+ * Anything else yields {@link #INVALID} so callers can fall back to java.time.
+ * Kept free of Android dependencies so it can be benchmarked on the JVM.
+ */
+public final class TimestampParser {
+
+    /** Returned when the input is not in one of the supported formats */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private TimestampParser() {
+    }
+
+    /**
+     * Parse a timestamp to epoch milliseconds
+     *
+     * @param s The timestamp string
+     * @return Epoch milliseconds, or {@link #INVALID} if the format is not supported
+     */
+    public static long parseEpochMillis(String s) {
+        if (s == null) {
+            return INVALID;
+        }
+        int len = s.length();
+        if (len == 0) {
+            return INVALID;
+        }
+        if (len < 19 || s.charAt(4) != '-') {
+            return parseEpochDigits(s, len);
+        }
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        char sep = s.charAt(10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || s.charAt(7) != '-' || (sep != 'T' && sep != 't' && sep != ' ')
+                || hour < 0 || hour > 23 || s.charAt(13) != ':'
+                || minute < 0 || minute > 59 || s.charAt(16) != ':'
+                || second < 0 || second > 59) {
+            return INVALID;
+        }
+
+        int pos = 19;
+        int millis = 0;
+        if (pos < len && s.charAt(pos) == '.') {
+            int start = ++pos;
+            while (pos < len && isDigit(s.charAt(pos))) {
+                if (pos - start < 3) {
+                    millis = millis * 10 + (s.charAt(pos) - '0');
+                }
+                pos++;
+            }
+            int fractionDigits = pos - start;
+            if (fractionDigits == 0) {
+                return INVALID;
+            }
+            for (int i = fractionDigits; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        int offsetSeconds = 0;
+        if (pos < len) {
+            char c = s.charAt(pos);
+            if (c == 'Z' || c == 'z') {
+                pos++;
+            } else if (c == '+' || c == '-') {
+                int offsetHours = digits(s, pos + 1, 2);
+                if (offsetHours < 0 || offsetHours > 18) {
+                    return INVALID;
+                }
+                pos += 3;
+                int offsetMinutes = 0;
+                if (pos < len) {
+                    if (s.charAt(pos) == ':') {
+                        pos++;
+                    }
+                    offsetMinutes = digits(s, pos, 2);
+                    if (offsetMinutes < 0 || offsetMinutes > 59) {
+                        return INVALID;
+                    }
+                    pos += 2;
+                }
+                offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+                if (c == '-') {
+                    offsetSeconds = -offsetSeconds;
+                }
+            } else {
+                return INVALID;
+            }
+        }
+        if (pos != len) {
+            return INVALID;
+        }
+
+        long epochDay = epochDay(year, month, day);
+        long secondOfDay = hour * 3600L + minute * 60L + second;
+        return epochDay * MILLIS_PER_DAY + (secondOfDay - offsetSeconds) * 1000L + millis;
+    }
+
+    /**
+     * Parse a plain run of digits as epoch milliseconds
+     */
+    private static long parseEpochDigits(String s, int len) {
+        if (len > 18) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Read {@code count} decimal digits starting at {@code start}, or -1 if any is missing
+     */
+    private static int digits(String s, int start, int count) {
+        if (start + count > s.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (civil-from-days inverse)
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.madadgarapp.utils;
+
+import com.example.madadgarapp.models.Item;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Matching and ranking of {@link ItemSearchIndex}
+ */
+public class ItemSearchIndexTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private ItemSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new ItemSearchIndex();
+    }
+
+    private static Item item(String id, String title, String description, long createdAt) {
+        return new Item(id, title, description, "Food", "Cooked", "Lahore", "0300",
+                null, "owner", createdAt, Long.MAX_VALUE);
+    }
+
+    /**
+     * Ids of the hits, best first
+     */
+    private List<String> search(String query) {
+        List<String> ids = new ArrayList<>();
+        for (ItemSearchIndex.Hit hit : index.search(query, NOW)) {
+            ids.add(hit.item.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void tokenize_foldsCaseAndDiacriticsAndSplitsOnPunctuation() {
+        assertEquals(Arrays.asList("cafe", "creme", "brulee", "x2"),
+                Arrays.asList(ItemSearchIndex.tokenize("  Café-Crème, BRÛLÉE x2 ")));
+        assertEquals(0, ItemSearchIndex.tokenize(null).length);
+        assertEquals(0, ItemSearchIndex.tokenize(" ,.! ").length);
+    }
+
+    @Test
+    public void matchesSubstringsOfWords() {
+        index.put(item("1", "Chicken biryani", "Freshly cooked", NOW));
+        index.put(item("2", "Winter jacket", "Barely worn", NOW));
+
+        assertEquals(Arrays.asList("1"), search("biryani"));
+        assertEquals(Arrays.asList("1"), search("iryan"));
+        assertEquals(Arrays.asList("2"), search("JACK"));
+        assertEquals(Arrays.asList("1"), search("fresh"));
+        assertTrue(search("pizza").isEmpty());
+    }
+
+    @Test
+    public void shortTermsMatchWordPrefixesOnly() {
+        index.put(item("1", "Chicken biryani", "", NOW));
+
+        assertEquals(Arrays.asList("1"), search("bi"));
+        assertTrue(search("ry").isEmpty());
+    }
+
+    @Test
+    public void trigramOverlapAloneIsNotAMatch() {
+        // Contains the trigrams "abc" and "bcd" but not the substring "abcd"
+        index.put(item("1", "abcxbcd", "", NOW));
+
+        assertTrue(search("abcd").isEmpty());
+        assertEquals(Arrays.asList("1"), search("xbcd"));
+    }
+
+    @Test
+    public void queryWordsMatchInAnyOrderAndAllAreRequired() {
+        index.put(item("1", "Rice with chicken", "", NOW));
+        index.put(item("2", "Rice pudding", "", NOW));
+
+        assertEquals(Arrays.asList("1"), search("chicken rice"));
+        assertEquals(Arrays.asList("1"), search("rice chicken"));
+        assertTrue(search("rice pizza").isEmpty());
+    }
+
+    @Test
+    public void queryDiacriticsAreIgnored() {
+        index.put(item("1", "Crème caramel", "", NOW));
+
+        assertEquals(Arrays.asList("1"), search("creme"));
+        assertEquals(Arrays.asList("1"), search("CRÈME"));
+    }
+
+    @Test
+    public void titleHitsRankAboveDescriptionHits() {
+        index.put(item("description", "Old sofa", "Comes with a lamp", NOW));
+        index.put(item("title", "Desk lamp", "Works fine", NOW));
+
+        assertEquals(Arrays.asList("title", "description"), search("lamp"));
+    }
+
+    @Test
+    public void wholeWordHitsRankAbovePartialHits() {
+        index.put(item("partial", "Rices", "", NOW));
+        index.put(item("whole", "Rice", "", NOW));
+
+        assertEquals(Arrays.asList("whole", "partial"), search("rice"));
+    }
+
+    @Test
+    public void newerItemsRankFirstWhenTextTies() {
+        index.put(item("old", "Bicycle", "", NOW - 10 * DAY));
+        index.put(item("new", "Bicycle", "", NOW - DAY));
+
+        List<ItemSearchIndex.Hit> hits = index.search("bicycle", NOW);
+        assertEquals("new", hits.get(0).item.getId());
+        assertEquals("old", hits.get(1).item.getId());
+        assertTrue(hits.get(0).score > hits.get(1).score);
+    }
+
+    @Test
+    public void putReplacesThePreviousVersion() {
+        index.put(item("1", "Blue chair", "", NOW));
+        index.put(item("1", "Red table", "", NOW));
+
+        assertEquals(1, index.size());
+        assertTrue(search("chair").isEmpty());
+        assertEquals(Arrays.asList("1"), search("table"));
+    }
+
+    @Test
+    public void removeDropsTheItemAndItsIdIsReused() {
+        index.put(item("1", "Blue chair", "", NOW));
+        index.put(item("2", "Blue table", "", NOW));
+        index.remove("1");
+
+        assertFalse(index.contains("1"));
+        assertEquals(1, index.size());
+        assertEquals(Arrays.asList("2"), search("blue"));
+        assertTrue(search("chair").isEmpty());
+
+        // Takes over the freed doc slot
+        index.put(item("3", "Blue lamp", "", NOW));
+        assertEquals(Arrays.asList("3"), search("lamp"));
+        assertEquals(2, search("blue").size());
+    }
+
+    @Test
+    public void emptyQueryHasNoHits() {
+        index.put(item("1", "Blue chair", "", NOW));
+
+        assertTrue(index.search("", NOW).isEmpty());
+        assertTrue(index.search(" - ", NOW).isEmpty());
+    }
+}
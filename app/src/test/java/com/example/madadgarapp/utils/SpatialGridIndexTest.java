@@ -0,0 +1,258 @@
+package com.example.madadgarapp.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Radius and nearest queries of {@link SpatialGridIndex}, checked against a brute-force scan
+ */
+public class SpatialGridIndexTest {
+
+    private static final double LAHORE_LAT = 31.5204;
+    private static final double LAHORE_LON = 74.3587;
+
+    // Points this close to the radius may fall either way through rounding
+    private static final double EDGE_TOLERANCE_KM = 1e-9;
+
+    /**
+     * Ids within the radius by checking every point, sorted; null if a point sits on the edge
+     */
+    private static int[] bruteForce(double[] lats, double[] lons, double lat, double lon, double radiusKm) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < lats.length; i++) {
+            double d = SpatialGridIndex.distanceKm(lat, lon, lats[i], lons[i]);
+            if (Math.abs(d - radiusKm) < EDGE_TOLERANCE_KM) {
+                return null;
+            }
+            if (d <= radiusKm) {
+                ids.add(i);
+            }
+        }
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static void assertMatchesBruteForce(double[] lats, double[] lons, double cellKm,
+                                                double lat, double lon, double radiusKm) {
+        int[] expected = bruteForce(lats, lons, lat, lon, radiusKm);
+        if (expected == null) {
+            return;
+        }
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, cellKm);
+        assertArrayEquals("cell " + cellKm + " km, radius " + radiusKm + " km at " + lat + "," + lon,
+                expected, sorted(index.withinRadius(lat, lon, radiusKm)));
+    }
+
+    @Test
+    public void distanceKm_knownValues() {
+        // One degree of latitude along a meridian
+        assertEquals(6371.0 * Math.PI / 180.0, SpatialGridIndex.distanceKm(0, 0, 1, 0), 1e-9);
+        // A quarter of the equator
+        assertEquals(6371.0 * Math.PI / 2, SpatialGridIndex.distanceKm(0, 0, 0, 90), 1e-9);
+        assertEquals(0.0, SpatialGridIndex.distanceKm(LAHORE_LAT, LAHORE_LON, LAHORE_LAT, LAHORE_LON), 0.0);
+        assertEquals(SpatialGridIndex.distanceKm(24.8607, 67.0011, LAHORE_LAT, LAHORE_LON),
+                SpatialGridIndex.distanceKm(LAHORE_LAT, LAHORE_LON, 24.8607, 67.0011), 1e-9);
+    }
+
+    @Test
+    public void withinRadius_matchesBruteForceAcrossCellSizes() {
+        Random random = new Random(7);
+        int n = 2000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Within about 30 km of the city centre
+            lats[i] = LAHORE_LAT + (random.nextDouble() - 0.5) * 0.5;
+            lons[i] = LAHORE_LON + (random.nextDouble() - 0.5) * 0.6;
+        }
+        double[] cellSizes = {0.01, 0.5, 1.0, 5.0, 50.0};
+        double[] radii = {0.0, 0.3, 1.0, 2.5, 10.0, 40.0};
+        for (double cellKm : cellSizes) {
+            for (double radiusKm : radii) {
+                for (int q = 0; q < 5; q++) {
+                    double lat = LAHORE_LAT + (random.nextDouble() - 0.5) * 0.4;
+                    double lon = LAHORE_LON + (random.nextDouble() - 0.5) * 0.5;
+                    assertMatchesBruteForce(lats, lons, cellKm, lat, lon, radiusKm);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void withinRadius_pointsJustInsideAndOutsideAcrossCellBoundaries() {
+        // A row of points 100 m apart crossing several 1 km cells
+        int n = 61;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        double degPerKm = 180.0 / (6371.0 * Math.PI);
+        for (int i = 0; i < n; i++) {
+            lats[i] = LAHORE_LAT + (i - 30) * 0.1 * degPerKm;
+            lons[i] = LAHORE_LON;
+        }
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, 1.0);
+
+        // 1.05 km reaches the points 1.0 km either side but not those 1.1 km away
+        int[] hits = sorted(index.withinRadius(LAHORE_LAT, LAHORE_LON, 1.05));
+        int[] expected = new int[21];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 20 + i;
+        }
+        assertArrayEquals(expected, hits);
+
+        for (double radiusKm = 0.05; radiusKm < 3.0; radiusKm += 0.1) {
+            assertMatchesBruteForce(lats, lons, 1.0, LAHORE_LAT, LAHORE_LON, radiusKm);
+        }
+    }
+
+    @Test
+    public void withinRadius_largeRadiusWithoutPrefilter() {
+        double[] lats = {LAHORE_LAT, 24.8607, 33.6844, 34.0151, 40.7128};
+        double[] lons = {LAHORE_LON, 67.0011, 73.0479, 71.5249, -74.0060};
+        for (double radiusKm : new double[]{150, 500, 1100, 20000}) {
+            assertMatchesBruteForce(lats, lons, 1.0, LAHORE_LAT, LAHORE_LON, radiusKm);
+        }
+    }
+
+    @Test
+    public void withinRadius_wrapsAroundTheAntimeridian() {
+        double[] lats = {0.0, 0.0, 0.0};
+        double[] lons = {179.99, -179.99, -179.0};
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, 1.0);
+
+        // The first two are about 2.2 km apart across the date line; the third is ~110 km away
+        assertArrayEquals(new int[]{0, 1}, sorted(index.withinRadius(0.0, 179.995, 5.0)));
+        assertArrayEquals(new int[]{0, 1}, sorted(index.withinRadius(0.0, -179.995, 5.0)));
+    }
+
+    @Test
+    public void withinRadius_nearThePole() {
+        double[] lats = {89.99, 89.99, 89.99, 89.0};
+        double[] lons = {0.0, 90.0, -150.0, 0.0};
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, 1.0);
+
+        // Every point at 89.99 is within about 2.2 km of every other; 89.0 is ~110 km south
+        assertArrayEquals(new int[]{0, 1, 2}, sorted(index.withinRadius(89.99, 45.0, 5.0)));
+    }
+
+    @Test
+    public void withinRadius_acrossThePole() {
+        // 77.8 km apart over the pole, on nearly opposite meridians
+        double[] lats = {89.8};
+        double[] lons = {179.9999};
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, 1.0);
+
+        assertArrayEquals(new int[]{0}, index.withinRadius(89.5, 0.0, 100.0));
+    }
+
+    @Test
+    public void withinRadius_matchesBruteForceNearThePoles() {
+        Random random = new Random(13);
+        int n = 1500;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Within about 170 km of either pole, at every longitude
+            double lat = 90.0 - random.nextDouble() * 1.5;
+            lats[i] = i % 2 == 0 ? lat : -lat;
+            lons[i] = (random.nextDouble() - 0.5) * 360.0;
+        }
+        for (double cellKm : new double[]{1.0, 10.0}) {
+            for (double radiusKm : new double[]{5.0, 50.0, 99.0, 100.0}) {
+                for (int q = 0; q < 10; q++) {
+                    // Just below the pole, where the search circle can reach across it
+                    double lat = 90.0 - random.nextDouble();
+                    double lon = (random.nextDouble() - 0.5) * 360.0;
+                    assertMatchesBruteForce(lats, lons, cellKm, q % 2 == 0 ? lat : -lat, lon, radiusKm);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void withinRadius_matchesBruteForceAtHighLatitudes() {
+        Random random = new Random(17);
+        int n = 1500;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Around the latitude where the prefilter turns off
+            lats[i] = 83.0 + random.nextDouble() * 4.0;
+            lons[i] = (random.nextDouble() - 0.5) * 20.0;
+        }
+        for (double radiusKm : new double[]{10.0, 60.0, 100.0}) {
+            for (int q = 0; q < 20; q++) {
+                double lat = 83.5 + random.nextDouble() * 3.0;
+                double lon = (random.nextDouble() - 0.5) * 16.0;
+                assertMatchesBruteForce(lats, lons, 1.0, lat, lon, radiusKm);
+            }
+        }
+    }
+
+    @Test
+    public void nearest_returnsClosestFirstUpToK() {
+        Random random = new Random(11);
+        int n = 500;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = LAHORE_LAT + (random.nextDouble() - 0.5) * 0.3;
+            lons[i] = LAHORE_LON + (random.nextDouble() - 0.5) * 0.3;
+        }
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, 1.0);
+
+        Integer[] byDistance = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byDistance[i] = i;
+        }
+        Arrays.sort(byDistance, (a, b) -> Double.compare(
+                SpatialGridIndex.distanceKm(LAHORE_LAT, LAHORE_LON, lats[a], lons[a]),
+                SpatialGridIndex.distanceKm(LAHORE_LAT, LAHORE_LON, lats[b], lons[b])));
+        int[] expected = new int[10];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = byDistance[i];
+        }
+
+        assertArrayEquals(expected, index.nearest(LAHORE_LAT, LAHORE_LON, 10, 50.0));
+        assertEquals(0, index.nearest(LAHORE_LAT, LAHORE_LON, 0, 50.0).length);
+    }
+
+    @Test
+    public void nearest_stopsAtMaxRadius() {
+        double[] lats = {LAHORE_LAT, LAHORE_LAT + 0.05};
+        double[] lons = {LAHORE_LON, LAHORE_LON};
+        SpatialGridIndex index = new SpatialGridIndex(lats, lons, 1.0);
+
+        // The second point is about 5.6 km away
+        assertArrayEquals(new int[]{0}, index.nearest(LAHORE_LAT, LAHORE_LON, 5, 2.0));
+        assertArrayEquals(new int[]{0, 1}, index.nearest(LAHORE_LAT, LAHORE_LON, 5, 10.0));
+    }
+
+    @Test
+    public void emptyIndex() {
+        SpatialGridIndex index = new SpatialGridIndex(new double[0], new double[0], 1.0);
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.withinRadius(LAHORE_LAT, LAHORE_LON, 10.0).length);
+        assertEquals(0, index.nearest(LAHORE_LAT, LAHORE_LON, 3, 10.0).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedArraysAreRejected() {
+        new SpatialGridIndex(new double[2], new double[1], 1.0);
+    }
+}
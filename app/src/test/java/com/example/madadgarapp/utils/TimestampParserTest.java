@@ -0,0 +1,110 @@
+package com.example.madadgarapp.utils;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link TimestampParser} against java.time for the formats Supabase returns
+ */
+public class TimestampParserTest {
+
+    private static long utc(String isoInstant) {
+        return Instant.parse(isoInstant).toEpochMilli();
+    }
+
+    @Test
+    public void postgresTimestamptz_truncatesMicroseconds() {
+        assertEquals(utc("2024-01-15T10:30:00.123Z"),
+                TimestampParser.parseEpochMillis("2024-01-15T10:30:00.123456+00:00"));
+        assertEquals(utc("2024-01-15T10:30:00.999Z"),
+                TimestampParser.parseEpochMillis("2024-01-15T10:30:00.999999+00:00"));
+    }
+
+    @Test
+    public void shortFractions_arePaddedToMillis() {
+        assertEquals(utc("2024-01-15T10:30:00.500Z"), TimestampParser.parseEpochMillis("2024-01-15T10:30:00.5Z"));
+        assertEquals(utc("2024-01-15T10:30:00.120Z"), TimestampParser.parseEpochMillis("2024-01-15T10:30:00.12Z"));
+        assertEquals(utc("2024-01-15T10:30:00.007Z"), TimestampParser.parseEpochMillis("2024-01-15T10:30:00.007Z"));
+    }
+
+    @Test
+    public void utcDesignators() {
+        long expected = utc("2024-01-15T10:30:00Z");
+        assertEquals(expected, TimestampParser.parseEpochMillis("2024-01-15T10:30:00Z"));
+        assertEquals(expected, TimestampParser.parseEpochMillis("2024-01-15t10:30:00z"));
+        assertEquals(expected, TimestampParser.parseEpochMillis("2024-01-15 10:30:00+00:00"));
+    }
+
+    @Test
+    public void missingOffset_isUtc() {
+        assertEquals(utc("2024-01-15T10:30:00Z"), TimestampParser.parseEpochMillis("2024-01-15T10:30:00"));
+        assertEquals(utc("2024-01-15T10:30:00.250Z"), TimestampParser.parseEpochMillis("2024-01-15T10:30:00.25"));
+    }
+
+    @Test
+    public void offsets_matchJavaTime() {
+        String[] inputs = {
+                "2024-01-15T10:30:00+05:00",
+                "2024-01-15T10:30:00.123+05:30",
+                "2024-01-15T01:30:00-08:00",
+                "2024-03-01T00:15:00+14:00",
+                "2023-12-31T23:59:59.999-12:00",
+                "1969-12-31T23:59:59+00:00",
+        };
+        for (String input : inputs) {
+            assertEquals(input, OffsetDateTime.parse(input).toInstant().toEpochMilli(),
+                    TimestampParser.parseEpochMillis(input));
+        }
+    }
+
+    @Test
+    public void compactAndHourOnlyOffsets() {
+        long expected = OffsetDateTime.parse("2024-01-15T10:30:00+05:30").toInstant().toEpochMilli();
+        assertEquals(expected, TimestampParser.parseEpochMillis("2024-01-15T10:30:00+0530"));
+        assertEquals(OffsetDateTime.parse("2024-01-15T10:30:00-03:00").toInstant().toEpochMilli(),
+                TimestampParser.parseEpochMillis("2024-01-15T10:30:00-03"));
+    }
+
+    @Test
+    public void leapDays() {
+        assertEquals(utc("2024-02-29T12:00:00Z"), TimestampParser.parseEpochMillis("2024-02-29T12:00:00Z"));
+        assertEquals(utc("2000-02-29T12:00:00Z"), TimestampParser.parseEpochMillis("2000-02-29T12:00:00Z"));
+        assertEquals(TimestampParser.INVALID, TimestampParser.parseEpochMillis("2023-02-29T12:00:00Z"));
+        assertEquals(TimestampParser.INVALID, TimestampParser.parseEpochMillis("1900-02-29T12:00:00Z"));
+    }
+
+    @Test
+    public void epochMillisDigits() {
+        assertEquals(1705314600000L, TimestampParser.parseEpochMillis("1705314600000"));
+        assertEquals(0L, TimestampParser.parseEpochMillis("0"));
+    }
+
+    @Test
+    public void unsupportedInput_isInvalid() {
+        String[] inputs = {
+                null,
+                "",
+                "not a date",
+                "2024-13-01T00:00:00Z",
+                "2024-04-31T00:00:00Z",
+                "2024-01-15T24:00:00Z",
+                "2024-01-15T10:60:00Z",
+                "2024-01-15T10:30:60Z",
+                "2024-01-15X10:30:00Z",
+                "2024-01-15T10:30:00.Z",
+                "2024-01-15T10:30:00+19:00",
+                "2024-01-15T10:30:00+05:60",
+                "2024-01-15T10:30:00Zjunk",
+                "2024-01-15T10:30:00 UTC",
+                "12345678901234567890",
+                "-1",
+        };
+        for (String input : inputs) {
+            assertEquals(String.valueOf(input), TimestampParser.INVALID, TimestampParser.parseEpochMillis(input));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+// JVM microbenchmarks for the Android-free parts of the app (run with ./gradlew :benchmark:jmh)
+plugins {
+    java
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+// Compile the pure-Java sources under test straight from the app module
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include("com/example/madadgarapp/utils/TimestampParser.java")
+            include("com/example/madadgarapp/utils/ItemSearchIndex.java")
+            include("com/example/madadgarapp/utils/SpatialGridIndex.java")
+            include("com/example/madadgarapp/models/Item.java")
+        }
+    }
+}
+
+// Item.java has non-ASCII text; don't depend on the build machine's default charset
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    // Report allocation rate (gc.alloc.rate.norm) next to throughput
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
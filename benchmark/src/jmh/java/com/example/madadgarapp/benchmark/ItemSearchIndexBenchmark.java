@@ -0,0 +1,115 @@
+package com.example.madadgarapp.benchmark;
+
+import com.example.madadgarapp.models.Item;
+import com.example.madadgarapp.utils.ItemSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link ItemSearchIndex} against the linear lowercase/contains scan
+ * that Item.matchesFilters performs, plus the cost of re-indexing a single changed item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemSearchIndexBenchmark {
+
+    // Frequent words shared by many listings
+    private static final String[] COMMON_WORDS = {
+            "fresh", "bread", "rice", "lentils", "chapati", "biryani", "milk", "yogurt", "apples",
+            "bananas", "mangoes", "dal", "curry", "vegetables", "spinach", "onions", "potatoes",
+            "chair", "table", "sofa", "lamp", "jacket", "shoes", "books", "toys", "blanket",
+            "kurta", "dupatta", "stroller", "crib", "laptop", "phone", "charger", "kettle",
+            "plates", "cups", "homemade", "leftover", "packed", "sealed", "gently", "used",
+            "pickup", "today", "evening", "near", "market", "school", "mosque", "park"
+    };
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    // Syllables combined into a long tail of rarer words (names, places, brands)
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ra", "sha", "nu", "ti", "ba", "ze", "qo",
+            "pe", "du", "fa", "gi", "ho", "ju", "ve", "wa", "yo", "xi"
+    };
+
+    @Param({"bread", "fresh bread", "kalomi", "ke"})
+    public String query;
+
+    private ItemSearchIndex index;
+    private List<Item> items;
+    private Item changedItem;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        now = System.currentTimeMillis();
+        index = new ItemSearchIndex();
+        items = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Item item = new Item("item-" + i, sentence(random, 3), sentence(random, 20),
+                    "Food", "Cooked", "Lahore", "0300", null, "owner",
+                    now - random.nextInt(30 * 24 * 3600) * 1000L, Long.MAX_VALUE);
+            items.add(item);
+            index.put(item);
+        }
+        changedItem = new Item("item-0", sentence(random, 3), sentence(random, 20),
+                "Food", "Cooked", "Lahore", "0300", null, "owner", now, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int indexSearch() {
+        return index.search(query, now).size();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int count = 0;
+        for (Item item : items) {
+            if (item.matchesFilters(query, "")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int updateOneItem() {
+        index.put(changedItem);
+        return index.size();
+    }
+
+    /**
+     * Roughly one word in four is common, the rest come from an 8000-word long tail
+     */
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append(COMMON_WORDS[random.nextInt(COMMON_WORDS.length)]);
+            } else {
+                for (int j = 0; j < 3; j++) {
+                    sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.madadgarapp.benchmark;
+
+import com.example.madadgarapp.utils.SpatialGridIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius and nearest-first queries on {@link SpatialGridIndex} over 100k points spread
+ * across a metro area, against the per-item Haversine scan the feed filter used to run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpatialGridIndexBenchmark {
+
+    private static final int POINTS = 100_000;
+
+    // Roughly Lahore, with points spread over about 60 x 60 km
+    private static final double CENTER_LAT = 31.52;
+    private static final double CENTER_LON = 74.35;
+    private static final double SPREAD_DEG = 0.55;
+
+    @Param({"0.5", "5"})
+    public double radiusKm;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private SpatialGridIndex index;
+    private double queryLat;
+    private double queryLon;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = CENTER_LAT + (random.nextDouble() - 0.5) * SPREAD_DEG;
+            longitudes[i] = CENTER_LON + (random.nextDouble() - 0.5) * SPREAD_DEG;
+        }
+        index = new SpatialGridIndex(latitudes, longitudes, 1.0);
+        queryLat = CENTER_LAT + 0.01;
+        queryLon = CENTER_LON - 0.02;
+    }
+
+    @Benchmark
+    public int gridWithinRadius() {
+        return index.withinRadius(queryLat, queryLon, radiusKm).length;
+    }
+
+    @Benchmark
+    public int gridNearest20() {
+        return index.nearest(queryLat, queryLon, 20, radiusKm).length;
+    }
+
+    @Benchmark
+    public int linearHaversine() {
+        int count = 0;
+        for (int i = 0; i < POINTS; i++) {
+            if (haversineKm(queryLat, queryLon, latitudes[i], longitudes[i]) <= radiusKm) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public SpatialGridIndex build() {
+        return new SpatialGridIndex(latitudes, longitudes, 1.0);
+    }
+
+    /**
+     * Same formula as LocationUtils.calculateDistance
+     */
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.madadgarapp.benchmark;
+
+import com.example.madadgarapp.utils.TimestampParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass {@link TimestampParser} with the exception-driven java.time
+ * chain TimeUtils.parseTimestamp used before, for each format Supabase returns.
+ * Run with -prof gc (enabled in build.gradle.kts) to see allocation per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimestampParserBenchmark {
+
+    @Param({
+            "2024-01-15T10:30:00.123456+00:00", // Postgres timestamptz
+            "2024-01-15T10:30:00.000Z",         // Instant.toString()
+            "2024-01-15T10:30:00",              // timestamp without time zone
+            "1705314600000"                     // epoch milliseconds
+    })
+    public String timestamp;
+
+    @Benchmark
+    public long fastPath() {
+        return TimestampParser.parseEpochMillis(timestamp);
+    }
+
+    @Benchmark
+    public long javaTimeChain() {
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (Exception e1) {
+            try {
+                return Long.parseLong(timestamp);
+            } catch (Exception e2) {
+                try {
+                    return ZonedDateTime.parse(timestamp).toInstant().toEpochMilli();
+                } catch (Exception e3) {
+                    return LocalDateTime.parse(timestamp).atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
+                }
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ plugins {
     id("com.google.dagger.hilt.android") version "2.50" apply false
     id("com.google.devtools.ksp") version "1.9.22-1.0.16" apply false
     id("com.google.gms.google-services") version "4.4.0" apply false
+    id("me.champeau.jmh") version "0.7.3" apply false
 }
 
 // Clean task configuration
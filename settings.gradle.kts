@@ -31,3 +31,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "MADADGAR App"
 include(":app")
+include(":benchmark")
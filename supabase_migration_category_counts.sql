@@ -0,0 +1,22 @@
+-- Migration: Grouped category counts for the category filter
+-- Description: Returns how many active, unexpired items each (main, sub) category has in a
+-- single grouped query, so the app can show facet counts before the feed has loaded.
+
+CREATE INDEX IF NOT EXISTS idx_items_active_category
+ON public.items (main_category, sub_category)
+WHERE is_active = TRUE;
+
+-- Runs as the caller, so RLS still applies
+CREATE OR REPLACE FUNCTION public.item_category_counts()
+RETURNS TABLE (main_category TEXT, sub_category TEXT, item_count BIGINT)
+LANGUAGE sql
+STABLE
+AS $$
+    SELECT i.main_category::TEXT, i.sub_category::TEXT, count(*)
+    FROM public.items i
+    WHERE i.is_active = TRUE
+      AND (i.expires_at IS NULL OR i.expires_at > now())
+    GROUP BY i.main_category, i.sub_category;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.item_category_counts() TO anon, authenticated;
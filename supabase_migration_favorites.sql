@@ -0,0 +1,63 @@
+-- Migration: Synced favourites
+-- Description: Stores each user's favourite items so they follow the user across devices.
+-- Un-favouriting keeps the row with is_favorite = FALSE, so other devices pick the removal
+-- up in their next delta pull. changed_at is the client time of the change and decides
+-- conflicts (last writer wins); synced_at is set by the server and drives delta pulls.
+-- synced_at is stamped before the transaction commits, so a row can become visible after
+-- a pull has already moved past its stamp. Clients therefore start each pull a couple of
+-- minutes before the last synced_at they saw; applying a row twice is harmless.
+
+CREATE TABLE IF NOT EXISTS public.user_favorites (
+    user_id UUID NOT NULL DEFAULT auth.uid() REFERENCES auth.users(id) ON DELETE CASCADE,
+    item_id UUID NOT NULL,
+    is_favorite BOOLEAN NOT NULL,
+    changed_at TIMESTAMPTZ NOT NULL,
+    synced_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp(),
+    PRIMARY KEY (user_id, item_id)
+);
+
+-- Delta pulls: "my rows synced after X", in synced_at order
+CREATE INDEX IF NOT EXISTS idx_user_favorites_user_synced
+ON public.user_favorites (user_id, synced_at);
+
+ALTER TABLE public.user_favorites ENABLE ROW LEVEL SECURITY;
+
+DROP POLICY IF EXISTS "Users can view their own favorites" ON public.user_favorites;
+DROP POLICY IF EXISTS "Users can create their own favorites" ON public.user_favorites;
+DROP POLICY IF EXISTS "Users can update their own favorites" ON public.user_favorites;
+
+CREATE POLICY "Users can view their own favorites"
+    ON public.user_favorites
+    FOR SELECT
+    USING (auth.uid() = user_id);
+
+CREATE POLICY "Users can create their own favorites"
+    ON public.user_favorites
+    FOR INSERT
+    WITH CHECK (auth.uid() = user_id);
+
+CREATE POLICY "Users can update their own favorites"
+    ON public.user_favorites
+    FOR UPDATE
+    USING (auth.uid() = user_id)
+    WITH CHECK (auth.uid() = user_id);
+
+-- Apply a batch of changes in one call. A change only replaces the stored row if it is
+-- newer. clock_timestamp() gives every row its own synced_at, so a page boundary in a
+-- delta pull never splits rows that share a timestamp.
+-- changes: [{"item_id": "...", "is_favorite": true, "changed_at": "..."}, ...]
+CREATE OR REPLACE FUNCTION public.upsert_favorites(changes JSONB)
+RETURNS VOID
+LANGUAGE sql
+AS $$
+    INSERT INTO public.user_favorites AS f (user_id, item_id, is_favorite, changed_at, synced_at)
+    SELECT auth.uid(), c.item_id, c.is_favorite, c.changed_at, clock_timestamp()
+    FROM jsonb_to_recordset(changes) AS c(item_id UUID, is_favorite BOOLEAN, changed_at TIMESTAMPTZ)
+    ON CONFLICT (user_id, item_id) DO UPDATE
+    SET is_favorite = EXCLUDED.is_favorite,
+        changed_at = EXCLUDED.changed_at,
+        synced_at = clock_timestamp()
+    WHERE EXCLUDED.changed_at > f.changed_at;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.upsert_favorites(JSONB) TO authenticated;
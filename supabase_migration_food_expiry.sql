@@ -0,0 +1,10 @@
+-- Migration: Index for bulk expiry of Food items
+-- Description: FoodItemExpiryService deactivates expired food with one filtered update:
+--   UPDATE items SET is_active = false
+--   WHERE main_category = 'Food' AND is_active = true AND expires_at < now()
+--   RETURNING id;
+-- This partial index keeps that update an index range scan as the table grows.
+
+CREATE INDEX IF NOT EXISTS idx_items_active_food_expires_at
+ON items (expires_at)
+WHERE is_active = TRUE AND main_category = 'Food';
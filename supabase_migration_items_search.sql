@@ -0,0 +1,64 @@
+-- Migration: Full-text search over items
+-- Description: The feed search box used to filter only the first page of items on the device.
+-- This adds a weighted tsvector column with a GIN index and a search_items RPC that does
+-- prefix (typeahead) matching, ranks with ts_rank_cd and pages with a keyset cursor.
+-- The 'simple' configuration is used because listings mix English and Urdu text, which
+-- a language-specific stemmer would mangle.
+
+-- Title words weigh more than description words
+ALTER TABLE public.items
+ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+COMMENT ON COLUMN public.items.search_vector IS 'Weighted title/description lexemes for search_items';
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector
+ON public.items USING GIN (search_vector);
+
+-- Turn free text into a prefix tsquery: 'fresh bre' -> 'fresh':* & 'bre':*
+CREATE OR REPLACE FUNCTION public.items_prefix_tsquery(search_query TEXT)
+RETURNS TSQUERY
+LANGUAGE sql
+IMMUTABLE
+AS $$
+    SELECT to_tsquery('simple', string_agg(quote_literal(word) || ':*', ' & '))
+    FROM regexp_split_to_table(lower(trim(search_query)), '[^[:alnum:]]+') AS word
+    WHERE word <> '';
+$$;
+
+-- Ranked search over active, unexpired items.
+-- Rows are ordered by (rank, created_at, id) descending; pass the last row's values back
+-- as the cursor to fetch the next page. Runs as the caller, so RLS still applies.
+CREATE OR REPLACE FUNCTION public.search_items(
+    search_query TEXT,
+    page_size INT DEFAULT 20,
+    cursor_rank REAL DEFAULT NULL,
+    cursor_created_at TIMESTAMPTZ DEFAULT NULL,
+    cursor_id TEXT DEFAULT NULL
+)
+RETURNS TABLE (item JSONB, rank REAL)
+LANGUAGE sql
+STABLE
+AS $$
+    WITH query AS (
+        SELECT public.items_prefix_tsquery(search_query) AS q
+    ),
+    matches AS (
+        SELECT i.*, ts_rank_cd(i.search_vector, query.q) AS match_rank
+        FROM public.items i, query
+        WHERE i.search_vector @@ query.q
+          AND i.is_active = TRUE
+          AND (i.expires_at IS NULL OR i.expires_at > now())
+    )
+    SELECT to_jsonb(m) - 'search_vector' - 'match_rank', m.match_rank
+    FROM matches m
+    WHERE cursor_rank IS NULL
+       OR (m.match_rank, m.created_at, m.id::TEXT) < (cursor_rank, cursor_created_at, cursor_id)
+    ORDER BY m.match_rank DESC, m.created_at DESC, m.id::TEXT DESC
+    LIMIT LEAST(GREATEST(page_size, 1), 100);
+$$;
+
+GRANT EXECUTE ON FUNCTION public.search_items(TEXT, INT, REAL, TIMESTAMPTZ, TEXT) TO anon, authenticated;
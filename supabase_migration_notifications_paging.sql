@@ -0,0 +1,9 @@
+-- Migration: Keyset paging for user notifications
+-- Description: The app now asks the database for one user's notifications, newest first,
+-- a page at a time, with (created_at, id) as the keyset cursor. The unread list is served by
+-- idx_user_notifications_user_read_created; this adds the matching index for the list of
+-- all notifications, which has no is_read filter. id is included to break ties between rows
+-- created in the same instant.
+
+CREATE INDEX IF NOT EXISTS idx_user_notifications_user_created_id
+ON public.user_notifications(user_id, created_at DESC, id DESC);